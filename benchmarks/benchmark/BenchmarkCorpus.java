@@ -0,0 +1,80 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Liefert die Token-Listen für die Benchmarks.
+// Quelle ist die Datei aus -Dbenchmark.corpus=..., sonst der Roman aus src/data/ und, falls
+// dieser fehlt, ein synthetisches Korpus mit Zipf-verteilten Wörtern (fester Seed).
+// Für größere Korpora als die Quelle werden die Tokens wiederholt.
+final class BenchmarkCorpus {
+    static final String CORPUS_PROPERTY = "benchmark.corpus";
+    private static final String DEFAULT_CORPUS = "src/data/Jules_Verne_Zwanzigtausend_Meilen_unter_dem_Meer.txt";
+
+    private static final int SYNTHETIC_SIZE = 200_000;
+    private static final int SYNTHETIC_VOCABULARY = 20_000;
+
+    private static List<String> sourceTokens;
+
+    private BenchmarkCorpus() {
+    }
+
+    // Liefert genau size Tokens.
+    static synchronized List<String> tokens(int size) throws Throwable {
+        if (sourceTokens == null) {
+            sourceTokens = loadSourceTokens();
+        }
+
+        List<String> tokens = new ArrayList<>(size);
+        while (tokens.size() < size) {
+            tokens.addAll(sourceTokens.subList(0, Math.min(sourceTokens.size(), size - tokens.size())));
+        }
+        return List.copyOf(tokens);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> loadSourceTokens() throws Throwable {
+        Path path = Path.of(System.getProperty(CORPUS_PROPERTY, DEFAULT_CORPUS));
+        if (Files.isRegularFile(path)) {
+            List<String> tokens = (List<String>) (Object) Targets.TOKENS_FROM_FILE.invokeExact((Object) path.toString());
+            if (!tokens.isEmpty()) {
+                return tokens;
+            }
+        }
+        return syntheticTokens();
+    }
+
+    // Erzeugt Wörter aus Kleinbuchstaben, deren Häufigkeit grob dem Zipfschen Gesetz folgt.
+    private static List<String> syntheticTokens() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        String[] words = new String[SYNTHETIC_VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+
+        // Rang r wird mit Wahrscheinlichkeit proportional zu 1 / r gezogen (Inversionsmethode).
+        double[] cumulative = new double[words.length];
+        double sum = 0;
+        for (int rank = 1; rank <= words.length; rank++) {
+            sum += 1.0 / rank;
+            cumulative[rank - 1] = sum;
+        }
+
+        List<String> tokens = new ArrayList<>(SYNTHETIC_SIZE);
+        for (int i = 0; i < SYNTHETIC_SIZE; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            tokens.add(words[Math.min(words.length - 1, index >= 0 ? index : -index - 1)]);
+        }
+        return tokens;
+    }
+}
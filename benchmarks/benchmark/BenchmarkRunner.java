@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Einstiegspunkt von target/benchmarks.jar.
+// Akzeptiert alle JMH-Kommandozeilenoptionen und ergänzt, sofern nicht angegeben:
+// - den GC-Profiler (-prof gc) für Allokationsrate und Bytes pro Operation,
+// - ein JSON-Ergebnis mit Zeitstempel (target/jmh-result-<Zeit>.json), damit Läufe
+//   aufbewahrt und miteinander verglichen werden können (z.B. mit JMH Visualizer).
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        boolean gcProfilerRequested = commandLine.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc")
+                        || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfilerRequested) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            String extension = commandLine.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase();
+            Path result = Path.of("target", "jmh-result-" + timestamp + "." + extension);
+            Files.createDirectories(result.getParent());
+            options.result(result.toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Misst die n-Gramm-Erzeugung (ersetzt die n-Gramm-Messungen von Main.measureTimeToExecute).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NGramBenchmark {
+
+    public enum Implementation {
+        STRING_WITH_GATHERER(false),
+        STRING_WITHOUT_GATHERER(false),
+        STRING_PARALLEL(false),
+        ID_WITH_GATHERER(true),
+        ID_WITHOUT_GATHERER(true),
+        ID_PARALLEL(true),
+        ID_COUNTS(true),
+        ID_COUNTS_PARALLEL(true);
+
+        private final boolean idBased;
+
+        Implementation(boolean idBased) {
+            this.idBased = idBased;
+        }
+    }
+
+    @Param({"2", "3", "4", "5"})
+    public int n;
+
+    @Param({"50000", "500000"})
+    public int corpusSize;
+
+    @Param
+    public Implementation implementation;
+
+    private Object input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        List<String> tokens = BenchmarkCorpus.tokens(corpusSize);
+        // Die Kodierung gehört nicht zur Messung, sie wird einmal pro Trial erledigt.
+        input = implementation.idBased
+                ? (Object) Targets.ENCODE.invokeExact((Object) Targets.NEW_VOCABULARY.invokeExact(), (Object) tokens)
+                : tokens;
+    }
+
+    // Das Ergebnis wird an JMH zurückgegeben, damit der JIT die Berechnung nicht entfernt.
+    // Jeder Zweig ruft ein static final Handle direkt auf; nur so kann der JIT es als Konstante
+    // behandeln und den Aufruf einbetten (ein Handle aus einem Instanzfeld kann er nicht falten).
+    @Benchmark
+    public Object nGrams() throws Throwable {
+        return switch (implementation) {
+            case STRING_WITH_GATHERER -> (Object) Targets.NGRAMS_WITH_GATHERER.invokeExact(n, input);
+            case STRING_WITHOUT_GATHERER -> (Object) Targets.NGRAMS_WITHOUT_GATHERER.invokeExact(n, input);
+            case STRING_PARALLEL -> (Object) Targets.NGRAMS_PARALLEL.invokeExact(n, input);
+            case ID_WITH_GATHERER -> (Object) Targets.ID_NGRAMS_WITH_GATHERER.invokeExact(n, input);
+            case ID_WITHOUT_GATHERER -> (Object) Targets.ID_NGRAMS_WITHOUT_GATHERER.invokeExact(n, input);
+            case ID_PARALLEL -> (Object) Targets.ID_NGRAMS_PARALLEL.invokeExact(n, input);
+            case ID_COUNTS -> (Object) Targets.ID_NGRAM_COUNTS.invokeExact(n, input);
+            case ID_COUNTS_PARALLEL -> (Object) Targets.ID_NGRAM_COUNTS_PARALLEL.invokeExact(n, input);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+// Zugriff auf die gemessenen Methoden aus src/.
+// Die Projektklassen liegen im Standardpaket und können aus einem benannten Paket nicht
+// importiert werden; JMH verlangt aber ein Paket für Benchmark-Klassen. Die Methoden werden
+// deshalb einmalig per MethodHandle aufgelöst. Als static final Felder sind die Handles für den
+// JIT Konstanten, und ein direkter Aufruf wie Targets.X.invokeExact(...) wird wie ein normaler
+// Methodenaufruf eingebettet. Das gilt nur, solange das Handle direkt aus dem Feld gelesen wird;
+// in eine Variable oder ein Instanzfeld kopiert, kostet jeder Aufruf einen indirekten Sprung.
+// Die Benchmarks wählen das Handle deshalb mit einem switch in der @Benchmark-Methode.
+// Alle Referenztypen sind auf Object gelöscht, damit invokeExact ohne die Projekttypen auskommt.
+final class Targets {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final Class<?> MAIN = type("Main");
+    static final Class<?> VOCABULARY = type("Vocabulary");
+
+    // () -> Vocabulary
+    static final MethodHandle NEW_VOCABULARY = constructor(VOCABULARY);
+    // (Vocabulary, List<String>) -> int[]
+    static final MethodHandle ENCODE = virtual(VOCABULARY, "encode", int[].class, List.class);
+
+    // (int, List<String>) -> List<String> bzw. (int, int[]) -> List<int[]>
+    static final MethodHandle NGRAMS_WITHOUT_GATHERER = main("produceNGramsWithoutGatherer", List.class, int.class, List.class);
+    static final MethodHandle NGRAMS_WITH_GATHERER = main("produceNGramsWithGatherer", List.class, int.class, List.class);
+    static final MethodHandle ID_NGRAMS_WITHOUT_GATHERER = main("produceNGramsWithoutGatherer", List.class, int.class, int[].class);
+    static final MethodHandle ID_NGRAMS_WITH_GATHERER = main("produceNGramsWithGatherer", List.class, int.class, int[].class);
+    static final MethodHandle NGRAMS_PARALLEL = main("produceNGramsParallel", List.class, int.class, List.class);
+    static final MethodHandle ID_NGRAMS_PARALLEL = main("produceNGramsParallel", List.class, int.class, int[].class);
+    // (int, int[]) -> NGramCounter
+    static final MethodHandle ID_NGRAM_COUNTS = main("countNGrams", type("NGramCounter"), int.class, int[].class);
+    static final MethodHandle ID_NGRAM_COUNTS_PARALLEL = main("countNGramsParallel", type("NGramCounter"), int.class, int[].class);
+
+    // (int, List<String>) -> Map<String, Map<String, Long>>
+    static final MethodHandle COOCCURRENCES_WITHOUT_GATHERER = main("performCooccurrenceAnalysisWithoutGatherer", Map.class, int.class, List.class);
+    static final MethodHandle COOCCURRENCES_WITH_GATHERER = main("performCooccurrenceAnalysisWithGatherer", Map.class, int.class, List.class);
+    static final MethodHandle COOCCURRENCES_WITH_GATHERER_PARALLEL = main("performCooccurrenceAnalysisWithGathererParallel", Map.class, int.class, List.class);
+    // (int, int[]) -> CooccurrenceMatrix
+    static final MethodHandle ID_COOCCURRENCES_WITHOUT_GATHERER = main("performCooccurrenceAnalysisWithoutGatherer", type("CooccurrenceMatrix"), int.class, int[].class);
+    static final MethodHandle ID_COOCCURRENCES_WITH_GATHERER = main("performCooccurrenceAnalysisWithGatherer", type("CooccurrenceMatrix"), int.class, int[].class);
+    static final MethodHandle ID_COOCCURRENCES_WITH_GATHERER_PARALLEL = main("performCooccurrenceAnalysisWithGathererParallel", type("CooccurrenceMatrix"), int.class, int[].class);
+
+    // (String) -> List<String>
+    static final MethodHandle TOKENS_FROM_FILE = main("produceTokensFromFile", List.class, String.class);
+
+    private Targets() {
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Projektklasse nicht gefunden: " + name, e);
+        }
+    }
+
+    private static MethodHandle main(String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(MAIN, name, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Methode nicht gefunden: Main." + name, e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Methode nicht gefunden: " + owner.getName() + "." + name, e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, MethodType.methodType(void.class));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Konstruktor nicht gefunden: " + owner.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,591 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache für Tokenisierungs- und Analyseergebnisse, damit unveränderte Eingaben mit denselben
+// Parametern nicht erneut tokenisiert und gezählt werden.
+// - Schlüssel: SHA-256 des Dateiinhalts + Operation + Parameter (n bzw. window). Eine geänderte
+//   Datei erhält automatisch einen neuen Schlüssel; der Hash einer Datei wird anhand von Größe
+//   und Änderungszeit wiederverwendet.
+// - Speicherstufe: LRU (LinkedHashMap in Zugriffsreihenfolge), begrenzt durch die geschätzte
+//   Größe der Ergebnisse in Bytes.
+// - Optionale Plattenstufe: ein Verzeichnis mit einer Binärdatei pro Ergebnis (Wörterbuch +
+//   Varints, siehe Codec). Sie überlebt Neustarts und wird ohne Größengrenze gefüllt.
+//   Schlägt das Schreiben fehl (Platte voll, fehlende Rechte), wird das berechnete Ergebnis
+//   trotzdem geliefert und im Speicher gehalten; der Fehler wird in Stats.storeFailures gezählt.
+// - Ändert sich eine Datei, während ein Ergebnis für sie berechnet wird, wird das Ergebnis
+//   nicht gespeichert (IOException), da es nicht mehr zum Hash im Schlüssel passt.
+// - Threadsicher: Wird dasselbe Ergebnis gleichzeitig angefragt, berechnet es nur ein Thread;
+//   die anderen warten auf dessen Ergebnis.
+// Zurückgegebene Ergebnisse werden geteilt und sind nicht veränderbar.
+//
+// Verwendung:
+// AnalysisCache cache = new AnalysisCache(256L << 20, Path.of("cache"));
+// Map<String, Map<String, Long>> cooccurrences = cache.cooccurrences(path, 3);
+public class AnalysisCache {
+    public static final String TOKENS = "tokens";
+    public static final String NGRAMS = "ngrams";
+    public static final String NGRAM_COUNTS = "ngram-counts";
+    public static final String COOCCURRENCES = "cooccurrences";
+
+    private static final int FILE_MAGIC = 0x57414341; // "WACA"
+    // 2: Strings mit Varint-Länge und UTF-8 statt writeUTF (das nur 64 KB je String erlaubt).
+    private static final int FILE_VERSION = 2;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    // Grobe Größen im Heap für die Schätzung in Codec.sizeOf.
+    private static final long MAP_ENTRY_BYTES = 48L;
+    private static final long LONG_BYTES = 16L;
+
+    private final long maxMemoryBytes;
+    private final Path directory;
+
+    // Speicherstufe; alle Zugriffe synchronisiert auf memory.
+    private final LinkedHashMap<Key, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    // Laufende Berechnungen, damit jedes Ergebnis nur einmal gleichzeitig berechnet wird.
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Zuletzt berechnete Inhalts-Hashes pro Datei.
+    private final ConcurrentHashMap<Path, FileHash> fileHashes = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    // Anfragen, die auf die laufende Berechnung eines anderen Threads gewartet haben.
+    private final LongAdder sharedComputations = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder storeFailures = new LongAdder();
+
+    // Schlüssel eines Ergebnisses. operation darf nur Zeichen enthalten, die in Dateinamen erlaubt sind.
+    public record Key(String contentHash, String operation, int parameter) {
+        private String fileName() {
+            return operation + "-" + parameter + "-" + contentHash + ".bin";
+        }
+    }
+
+    public record Stats(long memoryHits, long sharedComputations, long diskHits, long misses, long evictions,
+                        long storeFailures, int memoryEntries, long memoryBytes) {
+    }
+
+    // Berechnet ein Ergebnis, falls es nicht im Cache liegt.
+    @FunctionalInterface
+    public interface Computation<V> {
+        V compute() throws IOException;
+    }
+
+    // Binärkodierung und Größenschätzung eines Ergebnistyps.
+    public interface Codec<V> {
+        void write(DataOutputStream out, V value) throws IOException;
+
+        // Liefert ein nicht veränderbares Ergebnis.
+        V read(DataInputStream in) throws IOException;
+
+        // Nicht veränderbare Sicht auf ein frisch berechnetes Ergebnis, bevor es geteilt wird.
+        V unmodifiable(V value);
+
+        // Geschätzter Speicherbedarf im Heap in Bytes (für die Verdrängung).
+        long sizeOf(V value);
+    }
+
+    private record Entry(Object value, long bytes) {
+    }
+
+    private record FileHash(long size, FileTime modified, String hash) {
+        // return: true, wenn Größe und Änderungszeit der Datei noch dieselben sind.
+        private boolean matches(Path file) throws IOException {
+            return size == Files.size(file) && modified.equals(Files.getLastModifiedTime(file));
+        }
+    }
+
+    // param: maxMemoryBytes Obergrenze der geschätzten Größe aller Ergebnisse im Speicher.
+    // param: directory Verzeichnis der Plattenstufe oder null für einen reinen Speicher-Cache.
+    public AnalysisCache(long maxMemoryBytes, Path directory) throws IOException {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes darf nicht negativ sein: " + maxMemoryBytes);
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    // Reiner Speicher-Cache.
+    public AnalysisCache(long maxMemoryBytes) throws IOException {
+        this(maxMemoryBytes, null);
+    }
+
+    // Tokens der Datei (wie Main.produceTokensFromFile).
+    public List<String> tokens(Path file) throws IOException {
+        return getOrComputeForFile(file, TOKENS, 0, STRING_LIST,
+                () -> Main.produceTokensFromFile(file.toString()));
+    }
+
+    // n-Gramme der Datei (wie Main.produceNGramsWithGatherer).
+    public List<String> nGrams(Path file, int n) throws IOException {
+        return getOrComputeForFile(file, NGRAMS, n, STRING_LIST,
+                () -> Main.produceNGramsWithGatherer(n, tokens(file)));
+    }
+
+    // n-Gramm-Häufigkeiten der Datei (wie Main.countNGrams).
+    public Map<String, Long> nGramCounts(Path file, int n) throws IOException {
+        return getOrComputeForFile(file, NGRAM_COUNTS, n, COUNTS,
+                () -> Main.countNGrams(n, tokens(file)));
+    }
+
+    // Kookkurrenzen der Datei (wie Main.performCooccurrenceAnalysisWithGatherer).
+    public Map<String, Map<String, Long>> cooccurrences(Path file, int window) throws IOException {
+        return getOrComputeForFile(file, COOCCURRENCES, window, COOCCURRENCE_MAP,
+                () -> Main.performCooccurrenceAnalysisWithGatherer(window, tokens(file)));
+    }
+
+    // Hash und Berechnung lesen die Datei getrennt. Damit kein Ergebnis einer inzwischen geänderten
+    // Datei unter dem alten Hash landet, werden Größe und Änderungszeit nach der Berechnung
+    // erneut geprüft; bei einer Abweichung wird nichts gespeichert.
+    private <V> V getOrComputeForFile(Path file, String operation, int parameter, Codec<V> codec,
+                                      Computation<V> computation) throws IOException {
+        FileHash hash = fileHash(file);
+        return getOrCompute(new Key(hash.hash(), operation, parameter), codec, () -> {
+            V value = computation.compute();
+            if (!hash.matches(file)) {
+                throw new IOException("Die Datei wurde während der Berechnung geändert: " + file);
+            }
+            return value;
+        });
+    }
+
+    // Liefert das Ergebnis aus dem Speicher, von der Platte oder berechnet es.
+    // Derselbe Schlüssel muss immer mit demselben Codec verwendet werden.
+    @SuppressWarnings("unchecked")
+    public <V> V getOrCompute(Key key, Codec<V> codec, Computation<V> computation) throws IOException {
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry != null) {
+            memoryHits.increment();
+            return (V) entry.value();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            // Ein anderer Thread berechnet bereits; auf sein Ergebnis warten.
+            Object value = await(running);
+            sharedComputations.increment();
+            return (V) value;
+        }
+
+        try {
+            // Ein anderer Thread kann das Ergebnis zwischen beiden Abfragen fertiggestellt haben.
+            synchronized (memory) {
+                entry = memory.get(key);
+            }
+            if (entry != null) {
+                memoryHits.increment();
+                future.complete(entry.value());
+                return (V) entry.value();
+            }
+
+            V value = load(key, codec);
+            if (value != null) {
+                diskHits.increment();
+            } else {
+                misses.increment();
+                value = codec.unmodifiable(computation.compute());
+                try {
+                    store(key, codec, value);
+                } catch (IOException e) {
+                    // Die Plattenstufe ist nur ein Cache: Das berechnete Ergebnis bleibt gültig.
+                    storeFailures.increment();
+                }
+            }
+            remember(key, value, codec.sizeOf(value));
+            future.complete(value);
+            return value;
+        } catch (IOException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    // SHA-256 des Dateiinhalts als Hex-String; wird wiederverwendet, solange Größe und
+    // Änderungszeit der Datei gleich bleiben.
+    public String contentHash(Path file) throws IOException {
+        return fileHash(file).hash();
+    }
+
+    private FileHash fileHash(Path file) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        long size = Files.size(normalized);
+        FileTime modified = Files.getLastModifiedTime(normalized);
+        FileHash known = fileHashes.get(normalized);
+        if (known != null && known.size() == size && known.modified().equals(modified)) {
+            return known;
+        }
+
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(normalized, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        FileHash hash = new FileHash(size, modified, HexFormat.of().formatHex(digest.digest()));
+        fileHashes.put(normalized, hash);
+        return hash;
+    }
+
+    // SHA-256 eines Textes (UTF-8), z.B. für Main.produceTokensFromText.
+    public static String contentHash(String text) {
+        return HexFormat.of().formatHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Entfernt alle Ergebnisse aus der Speicherstufe (die Plattenstufe bleibt erhalten).
+    public void clearMemory() {
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+    }
+
+    public Stats stats() {
+        synchronized (memory) {
+            return new Stats(memoryHits.sum(), sharedComputations.sum(), diskHits.sum(), misses.sum(),
+                    evictions.sum(), storeFailures.sum(), memory.size(), memoryBytes);
+        }
+    }
+
+    // Nimmt das Ergebnis in die Speicherstufe auf und verdrängt die am längsten
+    // nicht verwendeten Ergebnisse, bis die Größengrenze eingehalten ist.
+    // Ergebnisse, die allein größer als die Grenze sind, bleiben nur auf der Platte.
+    private void remember(Key key, Object value, long bytes) {
+        if (bytes > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            Entry previous = memory.put(key, new Entry(value, bytes));
+            memoryBytes += bytes - (previous != null ? previous.bytes() : 0);
+            Iterator<Entry> eldest = memory.values().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().bytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    // Liest das Ergebnis von der Platte oder liefert null. Beschädigte Dateien werden gelöscht.
+    private <V> V load(Key key, Codec<V> codec) throws IOException {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key.fileName());
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_SIZE))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Unbekanntes Cache-Format: " + file);
+            }
+            return codec.read(in);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Nicht löschbar (z.B. ein Verzeichnis): wie ein fehlendes Ergebnis behandeln.
+            }
+            return null;
+        }
+    }
+
+    // Schreibt das Ergebnis in eine temporäre Datei und benennt sie atomar um,
+    // damit parallele Leser nie eine halb geschriebene Datei sehen.
+    private <V> void store(Key key, Codec<V> codec, V value) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Path temporary = Files.createTempFile(directory, key.operation(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), IO_BUFFER_SIZE))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                codec.write(out, value);
+            }
+            Files.move(temporary, directory.resolve(key.fileName()),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            } else if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Jede Java-Plattform muss SHA-256 unterstützen.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Objektkopf, Felder und Latin-1-Zeichen eines Strings.
+    private static long sizeOfString(String s) {
+        return 40L + s.length();
+    }
+
+    // Liste von Strings (Tokens, n-Gramme): Wörterbuch der verschiedenen Strings + Varint-IDs.
+    public static final Codec<List<String>> STRING_LIST = new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, List<String> value) throws IOException {
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> words = new ArrayList<>();
+            int[] encoded = new int[value.size()];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = ids.computeIfAbsent(value.get(i), word -> addWord(words, word));
+            }
+            writeWords(out, words);
+            writeVarint(out, encoded.length);
+            for (int id : encoded) {
+                writeVarint(out, id);
+            }
+        }
+
+        @Override
+        public List<String> read(DataInputStream in) throws IOException {
+            String[] words = readWords(in);
+            String[] values = new String[readSize(in)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = words[readIndex(in, words.length)];
+            }
+            return Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        @Override
+        public List<String> unmodifiable(List<String> value) {
+            return Collections.unmodifiableList(value);
+        }
+
+        @Override
+        public long sizeOf(List<String> value) {
+            long bytes = 16L + 4L * value.size();
+            for (String s : value) {
+                bytes += sizeOfString(s);
+            }
+            return bytes;
+        }
+    };
+
+    // Häufigkeiten (z.B. n-Gramm-Zählung): String -> Anzahl.
+    public static final Codec<Map<String, Long>> COUNTS = new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, Map<String, Long> value) throws IOException {
+            writeVarint(out, value.size());
+            for (Map.Entry<String, Long> entry : value.entrySet()) {
+                writeString(out, entry.getKey());
+                writeVarint(out, entry.getValue());
+            }
+        }
+
+        @Override
+        public Map<String, Long> read(DataInputStream in) throws IOException {
+            int size = readSize(in);
+            Map<String, Long> map = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                map.put(readString(in), readVarint(in));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public Map<String, Long> unmodifiable(Map<String, Long> value) {
+            return Collections.unmodifiableMap(value);
+        }
+
+        @Override
+        public long sizeOf(Map<String, Long> value) {
+            long bytes = 64L + 4L * value.size();
+            for (String key : value.keySet()) {
+                bytes += MAP_ENTRY_BYTES + LONG_BYTES + sizeOfString(key);
+            }
+            return bytes;
+        }
+    };
+
+    // Kookkurrenzen: Zentrumswort -> (Nachbar -> Anzahl). Alle Wörter stehen einmal im
+    // Wörterbuch, die Zeilen verweisen per Varint-ID darauf.
+    public static final Codec<Map<String, Map<String, Long>>> COOCCURRENCE_MAP = new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, Map<String, Map<String, Long>> value) throws IOException {
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> words = new ArrayList<>();
+            value.forEach((center, row) -> {
+                ids.computeIfAbsent(center, word -> addWord(words, word));
+                row.keySet().forEach(neighbor -> ids.computeIfAbsent(neighbor, word -> addWord(words, word)));
+            });
+            writeWords(out, words);
+            writeVarint(out, value.size());
+            for (Map.Entry<String, Map<String, Long>> row : value.entrySet()) {
+                writeVarint(out, ids.get(row.getKey()));
+                writeVarint(out, row.getValue().size());
+                for (Map.Entry<String, Long> neighbor : row.getValue().entrySet()) {
+                    writeVarint(out, ids.get(neighbor.getKey()));
+                    writeVarint(out, neighbor.getValue());
+                }
+            }
+        }
+
+        @Override
+        public Map<String, Map<String, Long>> read(DataInputStream in) throws IOException {
+            String[] words = readWords(in);
+            int rows = readSize(in);
+            Map<String, Map<String, Long>> map = new HashMap<>(rows * 4 / 3 + 1);
+            for (int i = 0; i < rows; i++) {
+                String center = words[readIndex(in, words.length)];
+                int size = readSize(in);
+                Map<String, Long> row = new HashMap<>(size * 4 / 3 + 1);
+                for (int j = 0; j < size; j++) {
+                    row.put(words[readIndex(in, words.length)], readVarint(in));
+                }
+                map.put(center, Collections.unmodifiableMap(row));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public Map<String, Map<String, Long>> unmodifiable(Map<String, Map<String, Long>> value) {
+            Map<String, Map<String, Long>> rows = new HashMap<>(value.size() * 4 / 3 + 1);
+            value.forEach((center, row) -> rows.put(center, Collections.unmodifiableMap(row)));
+            return Collections.unmodifiableMap(rows);
+        }
+
+        @Override
+        public long sizeOf(Map<String, Map<String, Long>> value) {
+            // Die Wort-Strings werden zwischen den Zeilen geteilt und nur einmal gezählt.
+            long bytes = 64L;
+            for (Map.Entry<String, Map<String, Long>> row : value.entrySet()) {
+                bytes += MAP_ENTRY_BYTES + sizeOfString(row.getKey()) + 64L
+                        + (MAP_ENTRY_BYTES + LONG_BYTES + 4L) * row.getValue().size();
+            }
+            return bytes;
+        }
+    };
+
+    // Fügt ein Wort dem Wörterbuch hinzu.
+    // return: Seine ID.
+    private static int addWord(List<String> words, String word) {
+        words.add(word);
+        return words.size() - 1;
+    }
+
+    private static void writeWords(DataOutputStream out, List<String> words) throws IOException {
+        writeVarint(out, words.size());
+        for (String word : words) {
+            writeString(out, word);
+        }
+    }
+
+    private static String[] readWords(DataInputStream in) throws IOException {
+        String[] words = new String[readSize(in)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = readString(in);
+        }
+        return words;
+    }
+
+    // Varint-Länge und UTF-8-Bytes; anders als writeUTF ohne Längengrenze von 64 KB.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readSize(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Ungültiger Varint.");
+    }
+
+    // Liest eine Anzahl und prüft sie, damit beschädigte Dateien keine riesigen Arrays anlegen.
+    private static int readSize(DataInputStream in) throws IOException {
+        long size = readVarint(in);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new EOFException("Ungültige Größe: " + size);
+        }
+        return (int) size;
+    }
+
+    private static int readIndex(DataInputStream in, int bound) throws IOException {
+        long index = readVarint(in);
+        if (index >= bound) {
+            throw new IOException("Ungültiger Wörterbuch-Index: " + index);
+        }
+        return (int) index;
+    }
+}
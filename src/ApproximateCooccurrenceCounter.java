@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Näherungsweise Kookkurrenz-Zählung mit festem Speicherbedarf:
+// - Ein CountMinSketch schätzt die Anzahl jedes (Zentrum, Nachbar)-Paares.
+// - Ein globaler SpaceSaving-Tracker verfolgt die häufigsten Paare im ganzen Korpus.
+// - Optional verfolgt ein kleiner SpaceSaving-Tracker pro Zentrumswort dessen häufigste
+//   Nachbarn (Ersatz für Main.findTopKCooccurrences, ohne die ganze Zeile zu speichern).
+//   Ein SpaceSaving über die Zentrumswörter wählt die maxCenters häufigsten aus; nur sie
+//   behalten ihren Tracker. Der Speicher ist so O(maxCenters * neighborsPerCenter) statt
+//   O(V * neighborsPerCenter) für ein Vokabular der Größe V. Ein Zentrum, das zwischenzeitlich
+//   verdrängt wurde, beginnt mit einem neuen Tracker; seine Nachbarn zählen erst ab dann.
+//   topK liefert deshalb nur für häufige Wörter zuverlässige Ergebnisse.
+// Paare werden als long gepackt: (center << 32) | neighbor.
+// Zähler paralleler Abschnitte (mit demselben Vocabulary) lassen sich mit merge vereinigen.
+// Für exakte Zählungen siehe CooccurrenceMatrix.
+public class ApproximateCooccurrenceCounter {
+    private final int window;
+    private final CountMinSketch sketch;
+    private final SpaceSaving heavyHitters;
+    private final int neighborsPerCenter;
+    private final int maxCenters;
+    // Häufigkeit der Zentrumswörter; bestimmt, welche Nachbar-Tracker behalten werden.
+    private final SpaceSaving centerCounts;
+    // Zentrums-ID -> Index in trackers/trackedCenters.
+    private LongLongHashMap trackerIndexes = new LongLongHashMap();
+    private SpaceSaving[] trackers = new SpaceSaving[16];
+    private int[] trackedCenters = new int[16];
+    private int trackerCount;
+
+    // param: window Fenstergröße.
+    // param: epsilon Zulässiger Fehler relativ zur Gesamtzahl der Paare.
+    // param: delta Wahrscheinlichkeit, dass eine Schätzung den Fehler überschreitet.
+    // param: heavyHitters Anzahl der global verfolgten häufigsten Paare.
+    // param: neighborsPerCenter Anzahl der verfolgten Nachbarn pro Zentrumswort (0 = keine).
+    // param: maxCenters Anzahl der Zentrumswörter, deren Nachbarn verfolgt werden.
+    public ApproximateCooccurrenceCounter(int window, double epsilon, double delta,
+                                          int heavyHitters, int neighborsPerCenter, int maxCenters) {
+        if (window < 1 || neighborsPerCenter < 0 || (neighborsPerCenter > 0 && maxCenters < 1)) {
+            throw new IllegalArgumentException("Ungültige Parameter: window=" + window
+                    + ", neighborsPerCenter=" + neighborsPerCenter + ", maxCenters=" + maxCenters);
+        }
+        this.window = window;
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.heavyHitters = new SpaceSaving(heavyHitters);
+        this.neighborsPerCenter = neighborsPerCenter;
+        this.maxCenters = maxCenters;
+        this.centerCounts = neighborsPerCenter > 0 ? new SpaceSaving(maxCenters) : null;
+    }
+
+    // Zählt alle Paare innerhalb des Fensters eines ID-kodierten Dokuments.
+    public void addWindowCounts(int[] ids) {
+        addWindowCounts(ids, 0, ids.length);
+    }
+
+    // Zählt die Paare der Zentrumswörter an den Positionen [from, to); Nachbarn werden
+    // im ganzen Dokument gesucht. So können Abschnitte eines Dokuments parallel gezählt werden.
+    public void addWindowCounts(int[] ids, int from, int to) {
+        for (int i = from; i < to; i++) {
+            SpaceSaving neighbors = null;
+            if (centerCounts != null) {
+                centerCounts.add(ids[i], 1L);
+                neighbors = trackerFor(ids[i]);
+            }
+            int start = Math.max(0, i - window);
+            int end = Math.min(ids.length - 1, i + window);
+            for (int j = start; j <= end; j++) {
+                if (j != i) {
+                    long pair = pair(ids[i], ids[j]);
+                    sketch.add(pair, 1L);
+                    heavyHitters.add(pair, 1L);
+                    if (neighbors != null) {
+                        neighbors.add(ids[j], 1L);
+                    }
+                }
+            }
+        }
+    }
+
+    // Vereinigt den Zähler eines anderen Abschnitts (gleiche Parameter, gleiches Vocabulary).
+    public void merge(ApproximateCooccurrenceCounter other) {
+        if (other.window != window || other.neighborsPerCenter != neighborsPerCenter
+                || other.maxCenters != maxCenters) {
+            throw new IllegalArgumentException("Zähler mit unterschiedlichen Parametern können nicht vereinigt werden.");
+        }
+        sketch.merge(other.sketch);
+        heavyHitters.merge(other.heavyHitters);
+        if (centerCounts != null) {
+            centerCounts.merge(other.centerCounts);
+            for (int i = 0; i < other.trackerCount; i++) {
+                trackerFor(other.trackedCenters[i]).merge(other.trackers[i]);
+            }
+            retainTrackedCenters();
+        }
+    }
+
+    // Geschätzte Anzahl des Paares (obere Schranke).
+    public long estimate(int center, int neighbor) {
+        return sketch.estimate(pair(center, neighbor));
+    }
+
+    // Die k häufigsten Paare im ganzen Korpus (Schlüssel: siehe center/neighbor).
+    // Die Anzahlen sind wie in ApproximateNGramCounter.topK durch den Sketch verschärft.
+    public List<SpaceSaving.Entry> topPairs(int k) {
+        return ApproximateNGramCounter.tighten(heavyHitters.topK(heavyHitters.capacity()), sketch, k);
+    }
+
+    // Die k häufigsten Nachbarn eines Wortes in absteigender Reihenfolge
+    // (gleiche Form wie Main.findTopKCooccurrences). k ist durch neighborsPerCenter begrenzt.
+    public Map<String, Long> topK(String word, int k, Vocabulary vocabulary) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        int center = vocabulary.getId(word.toLowerCase());
+        int index = center >= 0 && centerCounts != null ? (int) trackerIndexes.getOrDefault(center, -1) : -1;
+        if (index >= 0) {
+            // Schlüssel der Nachbar-Tracker sind einzelne IDs; der Sketch kennt das ganze Paar.
+            List<SpaceSaving.Entry> candidates = new ArrayList<>();
+            for (SpaceSaving.Entry entry : trackers[index].topK(neighborsPerCenter)) {
+                long count = Math.min(entry.count(), estimate(center, (int) entry.key()));
+                candidates.add(new SpaceSaving.Entry(entry.key(), count, entry.error(), null));
+            }
+            candidates.sort(Comparator.comparingLong(SpaceSaving.Entry::count).reversed());
+            for (SpaceSaving.Entry entry : candidates.subList(0, Math.min(k, candidates.size()))) {
+                result.put(vocabulary.wordOf((int) entry.key()), entry.count());
+            }
+        }
+        return result;
+    }
+
+    // Zentrums-ID eines gepackten Paares.
+    public static int center(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    // Nachbar-ID eines gepackten Paares.
+    public static int neighbor(long pair) {
+        return (int) pair;
+    }
+
+    // Anzahl aller gezählten Paare.
+    public long totalCount() {
+        return sketch.totalCount();
+    }
+
+    public CountMinSketch sketch() {
+        return sketch;
+    }
+
+    // Liefert den Nachbar-Tracker des Zentrums und legt ihn bei Bedarf an.
+    private SpaceSaving trackerFor(int center) {
+        int index = (int) trackerIndexes.getOrDefault(center, -1);
+        if (index >= 0) {
+            return trackers[index];
+        }
+        // Tracker verdrängter Zentren werden gesammelt entfernt, sobald es doppelt so viele wie
+        // maxCenters gibt; so bleiben höchstens 2 * maxCenters Tracker im Speicher.
+        if (trackerCount >= 2 * maxCenters) {
+            retainTrackedCenters();
+        }
+        if (trackerCount == trackers.length) {
+            trackers = Arrays.copyOf(trackers, trackerCount << 1);
+            trackedCenters = Arrays.copyOf(trackedCenters, trackerCount << 1);
+        }
+        SpaceSaving neighbors = new SpaceSaving(neighborsPerCenter);
+        trackers[trackerCount] = neighbors;
+        trackedCenters[trackerCount] = center;
+        trackerIndexes.put(center, trackerCount);
+        trackerCount++;
+        return neighbors;
+    }
+
+    // Entfernt die Tracker der Zentren, die centerCounts nicht mehr verfolgt.
+    private void retainTrackedCenters() {
+        LongLongHashMap indexes = new LongLongHashMap(maxCenters);
+        int count = 0;
+        for (int i = 0; i < trackerCount; i++) {
+            if (centerCounts.estimate(trackedCenters[i]) > 0) {
+                trackers[count] = trackers[i];
+                trackedCenters[count] = trackedCenters[i];
+                indexes.put(trackedCenters[count], count);
+                count++;
+            }
+        }
+        Arrays.fill(trackers, count, trackerCount, null);
+        trackerCount = count;
+        trackerIndexes = indexes;
+    }
+
+    private static long pair(int center, int neighbor) {
+        return ((long) center << 32) | (neighbor & 0xFFFFFFFFL);
+    }
+}
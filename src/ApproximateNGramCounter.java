@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Näherungsweise n-Gramm-Zählung mit festem Speicherbedarf, unabhängig von der Korpusgröße:
+// - Ein CountMinSketch schätzt die Häufigkeit jedes beliebigen n-Gramms (nie zu klein,
+//   höchstens um epsilon * totalCount() zu groß, mit Wahrscheinlichkeit 1 - delta).
+// - Ein SpaceSaving-Tracker verfolgt die häufigsten n-Gramme samt ID-Tupel für Top-K-Abfragen.
+// Zähler paralleler Abschnitte (mit demselben Vocabulary) lassen sich mit merge vereinigen.
+// Für exakte Zählungen siehe NGramCounter.
+public class ApproximateNGramCounter {
+    private final int n;
+    private final CountMinSketch sketch;
+    private final SpaceSaving heavyHitters;
+
+    // param: n Größe der n-Gramme.
+    // param: epsilon Zulässiger Fehler relativ zur Gesamtzahl der n-Gramme.
+    // param: delta Wahrscheinlichkeit, dass eine Schätzung den Fehler überschreitet.
+    // param: heavyHitters Anzahl der verfolgten häufigsten n-Gramme.
+    public ApproximateNGramCounter(int n, double epsilon, double delta, int heavyHitters) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n muss mindestens 1 sein: " + n);
+        }
+        this.n = n;
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.heavyHitters = new SpaceSaving(heavyHitters, n);
+    }
+
+    // Zählt alle n-Gramme eines ID-kodierten Dokuments.
+    public void addAll(int[] ids) {
+        addAll(ids, 0, ids.length);
+    }
+
+    // Zählt alle n-Gramme, die vollständig in ids[from, to) liegen.
+    public void addAll(int[] ids, int from, int to) {
+        int[] position = {from};
+        NGramFingerprints.forEach(n, ids, from, to, fingerprint -> {
+            sketch.add(fingerprint, 1L);
+            heavyHitters.add(fingerprint, 1L, ids, position[0]++);
+        });
+    }
+
+    // Vereinigt den Zähler eines anderen Abschnitts (gleiches n, gleiche Parameter, gleiches Vocabulary).
+    public void merge(ApproximateNGramCounter other) {
+        if (other.n != n) {
+            throw new IllegalArgumentException("Unterschiedliche n: " + n + " und " + other.n);
+        }
+        sketch.merge(other.sketch);
+        heavyHitters.merge(other.heavyHitters);
+    }
+
+    // Geschätzte Häufigkeit des n-Gramms (obere Schranke).
+    public long estimate(int... nGram) {
+        if (nGram.length != n) {
+            throw new IllegalArgumentException("Erwartet " + n + " IDs, erhalten: " + nGram.length);
+        }
+        return sketch.estimate(NGramFingerprints.fingerprint(nGram, 0, n));
+    }
+
+    // Die k häufigsten n-Gramme, absteigend nach (geschätzter) Anzahl.
+    // Beide Strukturen liefern obere Schranken; das Minimum aus Space-Saving und Sketch ist die engere.
+    public List<SpaceSaving.Entry> topK(int k) {
+        return tighten(heavyHitters.topK(heavyHitters.capacity()), sketch, k);
+    }
+
+    // Die k häufigsten n-Gramme als Map von n-Gramm-String auf Anzahl (absteigend sortiert).
+    public Map<String, Long> topK(int k, Vocabulary vocabulary) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (SpaceSaving.Entry entry : topK(k)) {
+            result.put(vocabulary.decodeNGram(entry.tuple()), entry.count());
+        }
+        return result;
+    }
+
+    public int n() {
+        return n;
+    }
+
+    // Anzahl aller gezählten n-Gramme.
+    public long totalCount() {
+        return sketch.totalCount();
+    }
+
+    public CountMinSketch sketch() {
+        return sketch;
+    }
+
+    // Ersetzt die Anzahl jedes Eintrags durch das Minimum mit der Sketch-Schätzung,
+    // sortiert neu und behält die k größten. Der Fehler verkleinert sich um denselben Betrag.
+    static List<SpaceSaving.Entry> tighten(List<SpaceSaving.Entry> entries, CountMinSketch sketch, int k) {
+        List<SpaceSaving.Entry> tightened = new ArrayList<>(entries.size());
+        for (SpaceSaving.Entry entry : entries) {
+            long count = Math.min(entry.count(), sketch.estimate(entry.key()));
+            long error = Math.max(0L, entry.error() - (entry.count() - count));
+            tightened.add(new SpaceSaving.Entry(entry.key(), count, error, entry.tuple()));
+        }
+        tightened.sort(Comparator.comparingLong(SpaceSaving.Entry::count).reversed());
+        return tightened.subList(0, Math.min(k, tightened.size()));
+    }
+}
@@ -1,64 +1,112 @@
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Gatherer;
 
+// Streaming-Kookkurrenz-Analyse: Verarbeitet die Tokens des Streams Element für Element
+// und puffert dabei nur 2 * window Tokens (siehe CooccurrenceCounter).
+// Dadurch funktioniert der Gatherer auch mit unbeschränkten Quellen
+// (z.B. Files.lines(...).flatMap(...)) und mit parallelStream(), weil der Combiner
+// die Teilergebnisse benachbarter Abschnitte samt Paaren an der Schnittstelle zusammenfügt.
+// Der Gatherer hat keinen veränderlichen Zustand und kann beliebig oft wiederverwendet werden.
 public class CooccurrenceAnalysisGatherer implements
-        Gatherer<String, Map<String, Map<String, Long>>, Map<String, Map<String, Long>>> {
-    private final List<String> tokens;
+        Gatherer<String, CooccurrenceAnalysisGatherer.State, Map<String, Map<String, Long>>> {
     private final int window;
-    private boolean done = false;
 
-    // Speichert Tokens und Fenstergröße für die Analyse.
-    public CooccurrenceAnalysisGatherer(List<String> tokens, int window) {
-        this.tokens = tokens;
+    // Speichert die Fenstergröße für die Analyse.
+    public CooccurrenceAnalysisGatherer(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
         this.window = window;
     }
 
-    // Liefert den initialen Zustand (leere verschachtelte HashMap).
-    @Override
-    public Supplier<Map<String, Map<String, Long>>> initializer() {
-        return HashMap::new;
+    // Früherer Konstruktor: Der Gatherer analysierte die übergebene Liste statt der Stream-Elemente.
+    // Für den bisherigen Aufruf tokens.stream().gather(new CooccurrenceAnalysisGatherer(tokens, window))
+    // ist das Ergebnis gleich; die Liste wird nicht mehr verwendet.
+    @Deprecated
+    public CooccurrenceAnalysisGatherer(List<String> tokens, int window) {
+        this(window);
     }
 
-    // Liefert den Integrator, der die gesamte Kookkurrenz-Analyse ausführt.
-    @Override
-    public Integrator<Map<String, Map<String, Long>>, String, Map<String, Map<String, Long>>> integrator() {
-        return (state, _, downstream) -> {
-
-            // Führt die Analyse nur einmal aus (Global Aggregation).
-            if (!done) {
-                done = true;
+    // Zustand eines (Teil-)Streams: eigenes Vocabulary plus Zähler über dessen IDs.
+    public static final class State {
+        private final Vocabulary vocabulary = new Vocabulary();
+        private final CooccurrenceCounter counter;
 
-                // Äußere Schleife: Iteriert über jedes Wort als Zentrumswort.
-                for (int i = 0; i < tokens.size(); i++) {
-                    String center = tokens.get(i);
-
-                    // Stellt sicher, dass die innere Map für das Zentrumswort existiert.
-                    Map<String, Long> centerMap = state.computeIfAbsent(center, k -> new HashMap<>());
-
-                    // Innere Schleife: Iteriert über das Kontextfenster.
-                    for (int j = i - window; j <= i + window; j++) {
+        private State(int window) {
+            this.counter = new CooccurrenceCounter(window);
+        }
+    }
 
-                        // Prüft Randbedingungen und schließt das Zentrumswort aus (j == i).
-                        if (j < 0 || j >= tokens.size() || j == i) continue;
+    // Variante für ID-kodierte Korpora (siehe Vocabulary), die die Matrix direkt ausgibt.
+    public static Gatherer<Integer, CooccurrenceCounter, CooccurrenceMatrix> ofIds(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
+        return Gatherer.of(
+                () -> new CooccurrenceCounter(window),
+                Integrator.ofGreedy((counter, id, _) -> {
+                    counter.accept(id);
+                    return true;
+                }),
+                CooccurrenceCounter::combine,
+                (counter, downstream) -> downstream.push(counter.matrix()));
+    }
 
-                        String neighbor = tokens.get(j);
+    // Variante, die in eine gemeinsame Tabelle außerhalb des Heaps zählt (siehe OffHeapCooccurrenceTable).
+    // Alle Abschnitte eines parallelen Streams schreiben gleichzeitig in die Tabelle; der Combiner
+    // zählt nur noch die Paare an der Schnittstelle. Die IDs müssen aus einem gemeinsamen Vocabulary stammen.
+    // Der Gatherer kennt die Länge des Streams nicht und prüft den Platz der Tabelle daher nicht vorab;
+    // bei bekannten IDs vorher table.ensureRoomFor(OffHeapCooccurrenceTable.maxPairs(ids, window)) aufrufen.
+    public static Gatherer<Integer, CooccurrenceCounter, OffHeapCooccurrenceTable> ofIds(
+            int window, OffHeapCooccurrenceTable table) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
+        return Gatherer.of(
+                () -> new CooccurrenceCounter(window, table),
+                Integrator.ofGreedy((counter, id, _) -> {
+                    counter.accept(id);
+                    return true;
+                }),
+                CooccurrenceCounter::combine,
+                (_, downstream) -> downstream.push(table));
+    }
 
-                        // Erhöht den Zähler für das Nachbarwort.
-                        centerMap.merge(neighbor, 1L, Long::sum);
-                    }
-                }
+    // Liefert den initialen Zustand eines (Teil-)Streams.
+    @Override
+    public Supplier<State> initializer() {
+        return () -> new State(window);
+    }
 
-                // Schiebt das Endergebnis in den Ausgabestream.
-                downstream.push(state);
-            }
+    // Liefert den Integrator, der jedes Token sofort in die Zählung aufnimmt.
+    @Override
+    public Integrator<State, String, Map<String, Map<String, Long>>> integrator() {
+        // Greedy: Der Gatherer bricht den Stream nie vorzeitig ab.
+        return Integrator.ofGreedy((state, token, _) -> {
+            // Das Token wird einmal gehasht; gezählt wird über primitive IDs.
+            state.counter.accept(state.vocabulary.idOf(token));
+            return true;
+        });
+    }
 
-            // Beendet den Stream nach dem ersten Element, da das Endergebnis gesendet wurde.
-            return false;
+    // Fügt zwei benachbarte Teilergebnisse paralleler Streams zusammen (links, rechts).
+    @Override
+    public BinaryOperator<State> combiner() {
+        return (left, right) -> {
+            // Die IDs des rechten Abschnitts werden in das Vocabulary des linken übersetzt.
+            int[] idMapping = left.vocabulary.mergeFrom(right.vocabulary);
+            left.counter.combine(right.counter, idMapping);
+            return left;
         };
     }
 
-    // Finisher/Combiner sind für diese globale, aufeinanderfolgende Analyse optional.
+    // Schiebt das Endergebnis am Ende des Streams in der bisherigen Map-Form in den Ausgabestream.
+    @Override
+    public BiConsumer<State, Downstream<? super Map<String, Map<String, Long>>>> finisher() {
+        return (state, downstream) -> downstream.push(state.counter.matrix().toMap(state.vocabulary));
+    }
 }
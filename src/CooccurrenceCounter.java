@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+// Zählt Kookkurrenzen eines Token-ID-Streams Element für Element.
+// Statt das ganze Korpus vorzuhalten, werden nur 2 * window IDs gepuffert:
+// - tail: Ringpuffer der letzten window IDs (Kontext für das nächste Token),
+// - head: die ersten window IDs (Kontext für einen links angrenzenden Teilbereich).
+// Mit head und tail lassen sich zwei benachbarte Teilergebnisse paralleler Streams
+// zusammenfügen, ohne dass Paare an der Schnittstelle verloren gehen.
+//
+// Gezählt wird in einen CooccurrenceSink: entweder eine eigene CooccurrenceMatrix pro Zähler
+// (combine addiert die Matrizen) oder ein gemeinsamer threadsicherer Sink wie
+// OffHeapCooccurrenceTable (combine zählt nur noch die Paare an der Schnittstelle).
+public class CooccurrenceCounter {
+    private final int window;
+    private final CooccurrenceSink sink;
+    private final int[] head;
+    private final int[] tail;
+    private int headSize;
+    private long tokenCount;
+
+    public CooccurrenceCounter(int window) {
+        this(window, new CooccurrenceMatrix());
+    }
+
+    // param: sink Das Ziel der Zählung (z.B. eine bestehende Matrix oder eine gemeinsame Tabelle).
+    public CooccurrenceCounter(int window, CooccurrenceSink sink) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
+        this.window = window;
+        this.sink = sink;
+        this.head = new int[window];
+        this.tail = new int[window];
+    }
+
+    // Verarbeitet das nächste Token: Zählt es in beide Richtungen mit den
+    // bis zu window vorherigen Tokens und schiebt es in die Puffer.
+    public void accept(int id) {
+        sink.ensureRow(id);
+
+        int previous = (int) Math.min(tokenCount, window);
+        for (int distance = 1; distance <= previous; distance++) {
+            int neighbor = tail[slot(tokenCount - distance)];
+            sink.increment(neighbor, id);
+            sink.increment(id, neighbor);
+        }
+
+        if (headSize < window) {
+            head[headSize++] = id;
+        }
+        tail[slot(tokenCount)] = id;
+        tokenCount++;
+    }
+
+    // Hängt das Teilergebnis eines rechts angrenzenden Stream-Abschnitts an (Combiner).
+    // Beide Zähler müssen dasselbe Vocabulary und dieselbe Fenstergröße verwenden.
+    public CooccurrenceCounter combine(CooccurrenceCounter right) {
+        return combine(right, null);
+    }
+
+    // Wie combine(right), wobei die IDs von right über idMapping in dieses Vocabulary übersetzt werden.
+    public CooccurrenceCounter combine(CooccurrenceCounter right, int[] idMapping) {
+        if (right.window != window) {
+            throw new IllegalArgumentException("Unterschiedliche Fenstergrößen: " + window + " und " + right.window);
+        }
+
+        if (right.sink == sink) {
+            // Gemeinsamer Sink: Die Paare beider Abschnitte sind bereits gezählt.
+            if (idMapping != null) {
+                throw new IllegalArgumentException("Ein gemeinsamer Sink setzt ein gemeinsames Vocabulary voraus.");
+            }
+        } else if (idMapping == null) {
+            matrix().addAll(right.matrix());
+        } else {
+            matrix().addAll(right.matrix(), idMapping);
+        }
+
+        // Paare an der Schnittstelle: Das a-letzte Token links und das b-te Token rechts
+        // (b beginnt bei 0) haben den Abstand a + b und liegen im Fenster, wenn a + b <= window.
+        int[] leftTail = lastTokens();
+        int[] rightHead = translate(Arrays.copyOf(right.head, right.headSize), idMapping);
+        for (int a = 1; a <= leftTail.length; a++) {
+            int left = leftTail[leftTail.length - a];
+            for (int b = 0; b < rightHead.length && a + b <= window; b++) {
+                sink.increment(left, rightHead[b]);
+                sink.increment(rightHead[b], left);
+            }
+        }
+
+        // Puffer fortschreiben, als wären die Tokens von right hier nacheinander angekommen.
+        for (int b = 0; b < rightHead.length && headSize < window; b++) {
+            head[headSize++] = rightHead[b];
+        }
+        int[] rightTail = translate(right.lastTokens(), idMapping);
+        int[] combinedTail = new int[leftTail.length + rightTail.length];
+        System.arraycopy(leftTail, 0, combinedTail, 0, leftTail.length);
+        System.arraycopy(rightTail, 0, combinedTail, leftTail.length, rightTail.length);
+        tokenCount += right.tokenCount;
+        writeTail(Arrays.copyOfRange(combinedTail, Math.max(0, combinedTail.length - window), combinedTail.length));
+        return this;
+    }
+
+    // Die Matrix, in die gezählt wird; nur für Zähler mit einer CooccurrenceMatrix als Sink.
+    public CooccurrenceMatrix matrix() {
+        if (sink instanceof CooccurrenceMatrix matrix) {
+            return matrix;
+        }
+        throw new IllegalStateException("Der Zähler schreibt in keine CooccurrenceMatrix: " + sink.getClass().getSimpleName());
+    }
+
+    public CooccurrenceSink sink() {
+        return sink;
+    }
+
+    public long tokenCount() {
+        return tokenCount;
+    }
+
+    // Die letzten min(tokenCount, window) IDs in Stream-Reihenfolge.
+    private int[] lastTokens() {
+        int length = (int) Math.min(tokenCount, window);
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = tail[slot(tokenCount - length + i)];
+        }
+        return result;
+    }
+
+    // Schreibt die letzten IDs so in den Ringpuffer, dass sie zur Position tokenCount passen.
+    private void writeTail(int[] lastTokens) {
+        for (int i = 0; i < lastTokens.length; i++) {
+            tail[slot(tokenCount - lastTokens.length + i)] = lastTokens[i];
+        }
+    }
+
+    private int slot(long position) {
+        return (int) (position % window);
+    }
+
+    private static int[] translate(int[] ids, int[] idMapping) {
+        if (idMapping != null) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = idMapping[ids[i]];
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,362 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+// Binäres, per Memory-Mapping lesbares Abbild einer Kookkurrenz-Analyse.
+// Die Datei wird einmal mit write(...) erzeugt und danach mit open(...) abgebildet;
+// Abfragen lesen direkt aus der Datei, ohne sie zu deserialisieren. Das Öffnen kostet
+// daher unabhängig von der Dateigröße nur wenige Millisekunden.
+//
+// Dateiaufbau (Little Endian, alle Abschnitte auf 8 Byte ausgerichtet):
+// - Header:        Magic, Version, Wortanzahl, Hash-Plätze, Paaranzahl, Abschnitts-Offsets
+// - wordOffsets:   long[words + 1], Byte-Offsets der Wörter im UTF-8-Block
+// - wordBytes:     alle Wörter als UTF-8 hintereinander
+// - wordSlots:     int[slots], Hash-Tabelle Wort -> ID (offene Adressierung, -1 = frei)
+// - rowOffsets:    long[words + 1], Beginn jeder Zeile in neighbors/counts/ranks (CSR)
+// - neighbors:     int[pairs], Nachbar-IDs, innerhalb einer Zeile aufsteigend sortiert
+// - counts:        long[pairs], Anzahl zum jeweiligen Nachbarn
+// - ranks:         int[pairs], Positionen innerhalb der Zeile absteigend nach Anzahl
+//                  (bei Gleichstand aufsteigend nach ID), damit Top-K kein Sortieren braucht
+//
+// Verwendung:
+// CooccurrenceIndex.write(path, matrix, vocabulary);
+// try (CooccurrenceIndex index = CooccurrenceIndex.open(path)) {
+//     index.topK("meer", 10);
+// }
+public class CooccurrenceIndex implements AutoCloseable {
+    private static final long MAGIC = 0x5844_4943_4F43_4157L; // "WACOCIDX" (Little Endian)
+    private static final int VERSION = 1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // Header-Felder (Byte-Positionen).
+    private static final long MAGIC_POSITION = 0;
+    private static final long VERSION_POSITION = 8;
+    private static final long WORD_COUNT_POSITION = 12;
+    private static final long SLOT_COUNT_POSITION = 16;
+    private static final long PAIR_COUNT_POSITION = 24;
+    private static final long SECTIONS_POSITION = 32;
+    private static final int SECTION_COUNT = 7;
+    private static final long HEADER_SIZE = SECTIONS_POSITION + SECTION_COUNT * Long.BYTES;
+
+    // Reihenfolge der Abschnitte im Header.
+    private static final int WORD_OFFSETS = 0;
+    private static final int WORD_BYTES = 1;
+    private static final int WORD_SLOTS = 2;
+    private static final int ROW_OFFSETS = 3;
+    private static final int NEIGHBORS = 4;
+    private static final int COUNTS = 5;
+    private static final int RANKS = 6;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int wordCount;
+    private final int slotMask;
+    private final long pairCount;
+    private final long[] sections;
+
+    private CooccurrenceIndex(Arena arena, MemorySegment segment) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+
+        if (segment.byteSize() < HEADER_SIZE
+                || segment.get(LONG, MAGIC_POSITION) != MAGIC
+                || segment.get(INT, VERSION_POSITION) != VERSION) {
+            throw new IOException("Keine gültige Indexdatei (Version " + VERSION + ").");
+        }
+        this.wordCount = segment.get(INT, WORD_COUNT_POSITION);
+        this.slotMask = segment.get(INT, SLOT_COUNT_POSITION) - 1;
+        this.pairCount = segment.get(LONG, PAIR_COUNT_POSITION);
+        this.sections = new long[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            sections[i] = segment.get(LONG, SECTIONS_POSITION + (long) i * Long.BYTES);
+        }
+    }
+
+    // Bildet eine mit write(...) erzeugte Indexdatei in den Speicher ab.
+    // Die Abbildung bleibt bis close() gültig und darf von mehreren Threads gelesen werden.
+    public static CooccurrenceIndex open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new CooccurrenceIndex(arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    // Schreibt Matrix und Wörterbuch als Indexdatei.
+    // Die Datei wird zunächst neben dem Ziel angelegt und erst vollständig an ihren Platz
+    // verschoben, sodass laufende Leser nie eine halb geschriebene Datei sehen.
+    // param: path Zieldatei (wird ersetzt, falls vorhanden).
+    // param: matrix Die Kookkurrenz-Matrix; alle IDs müssen im Wörterbuch stehen.
+    // param: vocabulary Das Wörterbuch der Matrix.
+    public static void write(Path path, CooccurrenceMatrix matrix, Vocabulary vocabulary) throws IOException {
+        int words = vocabulary.size();
+        int slots = Integer.highestOneBit(Math.max(1, words) * 2 - 1) << 1;
+
+        byte[][] wordBytes = new byte[words][];
+        long wordBytesSize = 0;
+        for (int id = 0; id < words; id++) {
+            wordBytes[id] = vocabulary.wordOf(id).getBytes(StandardCharsets.UTF_8);
+            wordBytesSize += wordBytes[id].length;
+        }
+
+        long pairs = 0;
+        for (int center = 0; center < Math.min(words, matrix.rowCapacity()); center++) {
+            IntLongHashMap row = matrix.row(center);
+            pairs += row != null ? row.size() : 0;
+        }
+
+        long[] sections = new long[SECTION_COUNT];
+        long position = HEADER_SIZE;
+        sections[WORD_OFFSETS] = position;
+        position = align(position + (words + 1L) * Long.BYTES);
+        sections[WORD_BYTES] = position;
+        position = align(position + wordBytesSize);
+        sections[WORD_SLOTS] = position;
+        position = align(position + (long) slots * Integer.BYTES);
+        sections[ROW_OFFSETS] = position;
+        position = align(position + (words + 1L) * Long.BYTES);
+        sections[NEIGHBORS] = position;
+        position = align(position + pairs * Integer.BYTES);
+        sections[COUNTS] = position;
+        position = align(position + pairs * Long.BYTES);
+        sections[RANKS] = position;
+        long fileSize = align(position + pairs * Integer.BYTES);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, arena);
+
+            file.set(LONG, MAGIC_POSITION, MAGIC);
+            file.set(INT, VERSION_POSITION, VERSION);
+            file.set(INT, WORD_COUNT_POSITION, words);
+            file.set(INT, SLOT_COUNT_POSITION, slots);
+            file.set(LONG, PAIR_COUNT_POSITION, pairs);
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                file.set(LONG, SECTIONS_POSITION + (long) i * Long.BYTES, sections[i]);
+            }
+
+            // Wörter und Hash-Tabelle.
+            for (long slot = 0; slot < slots; slot++) {
+                file.set(INT, sections[WORD_SLOTS] + slot * Integer.BYTES, Vocabulary.UNKNOWN);
+            }
+            long wordOffset = 0;
+            for (int id = 0; id < words; id++) {
+                file.set(LONG, sections[WORD_OFFSETS] + (long) id * Long.BYTES, wordOffset);
+                MemorySegment.copy(wordBytes[id], 0, file, ValueLayout.JAVA_BYTE,
+                        sections[WORD_BYTES] + wordOffset, wordBytes[id].length);
+                wordOffset += wordBytes[id].length;
+
+                int slot = mix(vocabulary.wordOf(id).hashCode()) & (slots - 1);
+                while (file.get(INT, sections[WORD_SLOTS] + (long) slot * Integer.BYTES) != Vocabulary.UNKNOWN) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                file.set(INT, sections[WORD_SLOTS] + (long) slot * Integer.BYTES, id);
+            }
+            file.set(LONG, sections[WORD_OFFSETS] + (long) words * Long.BYTES, wordOffset);
+
+            // CSR-Zeilen.
+            long rowOffset = 0;
+            for (int center = 0; center < words; center++) {
+                file.set(LONG, sections[ROW_OFFSETS] + (long) center * Long.BYTES, rowOffset);
+                IntLongHashMap row = center < matrix.rowCapacity() ? matrix.row(center) : null;
+                if (row != null) {
+                    writeRow(file, sections, rowOffset, row);
+                    rowOffset += row.size();
+                }
+            }
+            file.set(LONG, sections[ROW_OFFSETS] + (long) words * Long.BYTES, rowOffset);
+
+            file.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Anzahl der Wörter im Index.
+    public int vocabularySize() {
+        return wordCount;
+    }
+
+    // Anzahl aller gespeicherten (Zentrum, Nachbar)-Paare.
+    public long pairCount() {
+        return pairCount;
+    }
+
+    // Liefert die ID des Wortes oder Vocabulary.UNKNOWN (wie Vocabulary.getId).
+    public int idOf(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        MemorySegment key = MemorySegment.ofArray(bytes);
+        int slot = mix(word.hashCode()) & slotMask;
+        int id;
+        while ((id = segment.get(INT, sections[WORD_SLOTS] + (long) slot * Integer.BYTES)) != Vocabulary.UNKNOWN) {
+            long start = wordStart(id);
+            long end = wordStart(id + 1);
+            if (MemorySegment.mismatch(segment, start, end, key, 0, bytes.length) == -1) {
+                return id;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return Vocabulary.UNKNOWN;
+    }
+
+    // Liefert das Wort zur ID.
+    public String wordOf(int id) {
+        Objects.checkIndex(id, wordCount);
+        long start = wordStart(id);
+        byte[] bytes = segment.asSlice(start, wordStart(id + 1) - start).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Anzahl der Nachbarn des Zentrumswortes (0 für unbekannte IDs).
+    public int rowSize(int center) {
+        return center >= 0 && center < wordCount ? (int) (rowStart(center + 1) - rowStart(center)) : 0;
+    }
+
+    // Liefert die Anzahl des Paares (center, neighbor) oder 0 (binäre Suche in der Zeile).
+    public long get(int center, int neighbor) {
+        if (center < 0 || center >= wordCount) {
+            return 0L;
+        }
+        long low = rowStart(center);
+        long high = rowStart(center + 1) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int id = neighborAt(middle);
+            if (id < neighbor) {
+                low = middle + 1;
+            } else if (id > neighbor) {
+                high = middle - 1;
+            } else {
+                return countAt(middle);
+            }
+        }
+        return 0L;
+    }
+
+    // Übergibt alle Nachbarn des Zentrumswortes aufsteigend nach ID.
+    public void forEachNeighbor(int center, IntLongHashMap.IntLongConsumer action) {
+        if (center < 0 || center >= wordCount) {
+            return;
+        }
+        for (long i = rowStart(center), end = rowStart(center + 1); i < end; i++) {
+            action.accept(neighborAt(i), countAt(i));
+        }
+    }
+
+    // Die Nachbar-ID an Rang rank (0 = häufigster Nachbar).
+    public int neighbor(int center, int rank) {
+        Objects.checkIndex(rank, rowSize(center));
+        return neighborAt(rowStart(center) + rankAt(rowStart(center) + rank));
+    }
+
+    // Die Anzahl an Rang rank.
+    public long count(int center, int rank) {
+        Objects.checkIndex(rank, rowSize(center));
+        return countAt(rowStart(center) + rankAt(rowStart(center) + rank));
+    }
+
+    // Liefert die Zeile eines Wortes (wie ein Eintrag aus performCooccurrenceAnalysis...).
+    public Map<String, Long> row(String word) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        forEachNeighbor(idOf(word.toLowerCase()), (neighbor, count) -> result.put(wordOf(neighbor), count));
+        return result;
+    }
+
+    // Liefert die k häufigsten Nachbarn eines Wortes in absteigender Reihenfolge
+    // (gleiche Form wie Main.findTopKCooccurrences).
+    public Map<String, Long> topK(String word, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k darf nicht negativ sein: " + k);
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        int center = idOf(word.toLowerCase());
+        int size = Math.min(k, rowSize(center));
+        for (int rank = 0; rank < size; rank++) {
+            result.put(wordOf(neighbor(center, rank)), count(center, rank));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private long wordStart(int id) {
+        return sections[WORD_BYTES] + segment.get(LONG, sections[WORD_OFFSETS] + (long) id * Long.BYTES);
+    }
+
+    private long rowStart(int center) {
+        return segment.get(LONG, sections[ROW_OFFSETS] + (long) center * Long.BYTES);
+    }
+
+    private int neighborAt(long index) {
+        return segment.get(INT, sections[NEIGHBORS] + index * Integer.BYTES);
+    }
+
+    private long countAt(long index) {
+        return segment.get(LONG, sections[COUNTS] + index * Long.BYTES);
+    }
+
+    private int rankAt(long index) {
+        return segment.get(INT, sections[RANKS] + index * Integer.BYTES);
+    }
+
+    // Schreibt eine Zeile ab Position rowOffset: Nachbarn aufsteigend nach ID
+    // und die Rangfolge der Positionen absteigend nach Anzahl.
+    private static void writeRow(MemorySegment file, long[] sections, long rowOffset, IntLongHashMap row) {
+        int[] neighbors = new int[row.size()];
+        int[] next = {0};
+        row.forEach((neighbor, _) -> neighbors[next[0]++] = neighbor);
+        Arrays.sort(neighbors);
+
+        long[] counts = new long[neighbors.length];
+        for (int i = 0; i < neighbors.length; i++) {
+            counts[i] = row.get(neighbors[i]);
+            file.set(INT, sections[NEIGHBORS] + (rowOffset + i) * Integer.BYTES, neighbors[i]);
+            file.set(LONG, sections[COUNTS] + (rowOffset + i) * Long.BYTES, counts[i]);
+        }
+
+        // Da die Positionen nach ID sortiert sind, ergibt ein stabiles Sortieren nach Anzahl
+        // bei Gleichstand automatisch die aufsteigende ID-Reihenfolge.
+        int[] ranks = IntStream.range(0, neighbors.length)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> counts[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int i = 0; i < ranks.length; i++) {
+            file.set(INT, sections[RANKS] + (rowOffset + i) * Integer.BYTES, ranks[i]);
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    // Gleiche Streuung wie in Vocabulary.
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
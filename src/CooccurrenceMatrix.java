@@ -0,0 +1,216 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Dünnbesetzte Kookkurrenz-Matrix über Token-IDs (siehe Vocabulary).
+// Jede Zeile (Zentrumswort) ist eine primitive IntLongHashMap von Nachbar-ID auf Anzahl.
+// Ersetzt die verschachtelte Map<String, Map<String, Long>>: keine geboxten Zähler,
+// keine Allokation pro Erhöhung und ein Bruchteil des Speicherbedarfs.
+public class CooccurrenceMatrix implements CooccurrenceSink {
+    private IntLongHashMap[] rows;
+
+    public CooccurrenceMatrix() {
+        this(16);
+    }
+
+    // param: expectedRows Erwartete Anzahl der Zentrumswörter (z.B. Vocabulary.size()).
+    public CooccurrenceMatrix(int expectedRows) {
+        rows = new IntLongHashMap[Math.max(1, expectedRows)];
+    }
+
+    // Funktionales Interface für die Iteration über alle Einträge ohne Boxing.
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int center, int neighbor, long count);
+    }
+
+    // Zählt alle (Zentrum, Nachbar)-Paare innerhalb des Fensters eines ID-kodierten Korpus.
+    // Jedes Zentrumswort erhält eine Zeile, auch wenn es keine Nachbarn hat.
+    // Wiederholte Aufrufe (ein Dokument pro Aufruf) addieren zu den bisherigen Zählern;
+    // Fenster reichen dabei nie über die Grenze zwischen zwei Dokumenten.
+    public void addWindowCounts(int[] ids, int window) {
+        for (int i = 0; i < ids.length; i++) {
+            IntLongHashMap row = rowFor(ids[i]);
+
+            // Fenstergrenzen werden einmal berechnet, statt jeden Index einzeln zu prüfen.
+            int from = Math.max(0, i - window);
+            int to = Math.min(ids.length - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (j != i) {
+                    row.addTo(ids[j], 1L);
+                }
+            }
+        }
+    }
+
+    // Nimmt die mit addWindowCounts gezählten Paare eines Dokuments wieder heraus.
+    // Die Kosten hängen nur von der Länge des Dokuments ab. Zähler, die 0 erreichen, werden entfernt,
+    // ebenso Zeilen, die dadurch leer werden (auch wenn das Wort in einem anderen Dokument
+    // allein, also ohne Nachbarn, vorkommt).
+    // Enthält die Matrix die Paare des Dokuments nicht, bleibt sie unverändert und es wird
+    // eine IllegalStateException geworfen.
+    public void removeWindowCounts(int[] ids, int window) {
+        for (int i = 0; i < ids.length; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(ids.length - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (j != i && !decrement(ids[i], ids[j])) {
+                    restoreWindowCounts(ids, window, i, j);
+                    throw new IllegalStateException("Das Paar (" + ids[i] + ", " + ids[j]
+                            + ") ist nicht in der Matrix enthalten; wurde das Dokument hinzugefügt?");
+                }
+            }
+        }
+
+        for (int id : ids) {
+            IntLongHashMap row = row(id);
+            if (row != null && row.isEmpty()) {
+                rows[id] = null;
+            }
+        }
+    }
+
+    // Erhöht den Zähler des Paares (center, neighbor) um 1.
+    @Override
+    public void increment(int center, int neighbor) {
+        rowFor(center).addTo(neighbor, 1L);
+    }
+
+    // Erhöht den Zähler des Paares (center, neighbor) um delta.
+    public void add(int center, int neighbor, long delta) {
+        rowFor(center).addTo(neighbor, delta);
+    }
+
+    // Legt eine (leere) Zeile für das Zentrumswort an, falls sie noch fehlt.
+    @Override
+    public void ensureRow(int center) {
+        rowFor(center);
+    }
+
+    // Liefert die Anzahl des Paares (center, neighbor) oder 0.
+    public long get(int center, int neighbor) {
+        IntLongHashMap row = row(center);
+        return row != null ? row.get(neighbor) : 0L;
+    }
+
+    // Liefert die Zeile des Zentrumswortes oder null, wenn es nie vorkam.
+    // Die Zeile ist nur zum Lesen gedacht.
+    public IntLongHashMap row(int center) {
+        return center >= 0 && center < rows.length ? rows[center] : null;
+    }
+
+    // Obergrenze (exklusiv) der IDs, für die Zeilen existieren können.
+    public int rowCapacity() {
+        return rows.length;
+    }
+
+    // Anzahl der Zentrumswörter mit einer Zeile.
+    public int rowCount() {
+        int count = 0;
+        for (IntLongHashMap row : rows) {
+            if (row != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Anzahl der gespeicherten (Zentrum, Nachbar)-Paare.
+    public long pairCount() {
+        long count = 0;
+        for (IntLongHashMap row : rows) {
+            if (row != null) {
+                count += row.size();
+            }
+        }
+        return count;
+    }
+
+    // Ruft den Consumer für jedes gespeicherte Paar auf, zeilenweise nach Zentrums-ID.
+    public void forEach(EntryConsumer consumer) {
+        for (int center = 0; center < rows.length; center++) {
+            IntLongHashMap row = rows[center];
+            if (row != null) {
+                int c = center;
+                row.forEach((neighbor, count) -> consumer.accept(c, neighbor, count));
+            }
+        }
+    }
+
+    // Addiert alle Zähler einer anderen Matrix (mit demselben Vocabulary) zu dieser.
+    public void addAll(CooccurrenceMatrix other) {
+        for (int center = 0; center < other.rows.length; center++) {
+            IntLongHashMap otherRow = other.rows[center];
+            if (otherRow != null) {
+                rowFor(center).addAll(otherRow);
+            }
+        }
+    }
+
+    // Addiert alle Zähler einer Matrix, deren IDs aus einem anderen Vocabulary stammen.
+    // param: idMapping Übersetzt IDs der anderen Matrix in IDs dieser Matrix (siehe Vocabulary.mergeFrom).
+    public void addAll(CooccurrenceMatrix other, int[] idMapping) {
+        for (int center = 0; center < other.rows.length; center++) {
+            IntLongHashMap otherRow = other.rows[center];
+            if (otherRow != null) {
+                IntLongHashMap row = rowFor(idMapping[center]);
+                otherRow.forEach((neighbor, count) -> row.addTo(idMapping[neighbor], count));
+            }
+        }
+    }
+
+    // Wandelt die Matrix in die bisherige Form Map<String, Map<String, Long>> um.
+    public Map<String, Map<String, Long>> toMap(Vocabulary vocabulary) {
+        Map<String, Map<String, Long>> result = new HashMap<>();
+        for (int center = 0; center < rows.length; center++) {
+            IntLongHashMap row = rows[center];
+            if (row != null) {
+                Map<String, Long> map = new HashMap<>();
+                row.forEach((neighbor, count) -> map.put(vocabulary.wordOf(neighbor), count));
+                result.put(vocabulary.wordOf(center), map);
+            }
+        }
+        return result;
+    }
+
+    // Verringert den Zähler des Paares um 1 und entfernt ihn bei 0.
+    // return: false, wenn das Paar nicht gezählt war.
+    private boolean decrement(int center, int neighbor) {
+        IntLongHashMap row = row(center);
+        if (row == null || row.get(neighbor) < 1) {
+            return false;
+        }
+        if (row.addTo(neighbor, -1L) == 0) {
+            row.remove(neighbor);
+        }
+        return true;
+    }
+
+    // Zählt die Paare vor der Position (failedCenter, failedNeighbor) wieder hinzu,
+    // um einen abgebrochenen removeWindowCounts-Aufruf rückgängig zu machen.
+    private void restoreWindowCounts(int[] ids, int window, int failedCenter, int failedNeighbor) {
+        for (int i = 0; i <= failedCenter; i++) {
+            int from = Math.max(0, i - window);
+            int to = i < failedCenter ? Math.min(ids.length - 1, i + window) : failedNeighbor - 1;
+            for (int j = from; j <= to; j++) {
+                if (j != i) {
+                    rowFor(ids[i]).addTo(ids[j], 1L);
+                }
+            }
+        }
+    }
+
+    // Liefert die Zeile des Zentrumswortes und legt sie bei Bedarf an.
+    private IntLongHashMap rowFor(int center) {
+        if (center >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(center + 1, rows.length << 1));
+        }
+
+        IntLongHashMap row = rows[center];
+        if (row == null) {
+            row = new IntLongHashMap();
+            rows[center] = row;
+        }
+        return row;
+    }
+}
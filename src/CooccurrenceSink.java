@@ -0,0 +1,11 @@
+// Ziel, in das CooccurrenceCounter die gezählten Paare schreibt.
+// CooccurrenceMatrix zählt auf dem Heap (ein Zähler pro Stream-Abschnitt),
+// OffHeapCooccurrenceTable außerhalb des Heaps (ein gemeinsamer, threadsicherer Zähler).
+public interface CooccurrenceSink {
+    // Erhöht den Zähler des Paares (center, neighbor) um 1.
+    void increment(int center, int neighbor);
+
+    // Vermerkt ein Zentrumswort, auch wenn es (noch) keine Nachbarn hat.
+    default void ensureRow(int center) {
+    }
+}
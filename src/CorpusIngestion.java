@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Liest alle Dateien eines Verzeichnisses (rekursiv) parallel ein und zählt Kookkurrenzen
+// und n-Gramme über das ganze Korpus.
+//
+// Ablauf:
+// 1. Lesen: Jede Datei wird auf einem eigenen virtuellen Thread gelesen und tokenisiert
+//    (StreamingTokenizer). Wartende Lesezugriffe blockieren keine Plattform-Threads.
+// 2. Warteschlange: Die Tokens einer Datei gehen als Dokument (String[]) in eine beschränkte Warteschlange.
+//    Ist sie voll, warten die Leser (Backpressure); zusätzlich begrenzt ein Semaphor die Zahl
+//    gleichzeitig gelesener Dateien, sodass nie das ganze Korpus im Speicher liegt.
+// 3. Zählen: Eine feste Zahl von Workern entnimmt Dokumente und zählt sie in eigene Teilergebnisse
+//    (eigenes Vocabulary, eigene CooccurrenceMatrix, eigener NGramCounter) ohne Synchronisation.
+//    Jedes Token wird dabei genau einmal in das Vocabulary des Workers kodiert.
+//    Fenster und n-Gramme reichen nie über die Grenze zwischen zwei Dateien.
+// 4. Zusammenführen: Am Ende werden die Teilergebnisse über Vocabulary.mergeFrom vereinigt.
+//
+// Fehler beim Lesen oder Zählen einer Datei brechen die Verarbeitung nicht ab, sondern werden
+// pro Datei in Result.failures gemeldet; eine fehlgeschlagene Datei trägt nichts zu den Zählern bei.
+// Stirbt dagegen ein Leser oder Worker an einem Error (z.B. OutOfMemoryError), wird die ganze
+// Verarbeitung abgebrochen: Leser und Hauptthread warten nur mit Zeitlimit auf die Warteschlange
+// und prüfen dazwischen, ob abgebrochen wurde, sodass niemand ewig auf einen toten Worker wartet.
+public class CorpusIngestion {
+    // Markiert das Ende der Warteschlange (ein Exemplar pro Worker).
+    private static final Document END = new Document(null, new String[0]);
+    // Wie lange ein Leser höchstens auf einen Platz in der Warteschlange wartet, bevor er
+    // erneut prüft, ob die Verarbeitung abgebrochen wurde.
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final int window;
+    private final int n;
+    private final int workers;
+    private final int queueCapacity;
+    // Wird im Worker vor dem Zählen jedes Dokuments aufgerufen (für Tests, sonst leer).
+    private final Consumer<Path> beforeCount;
+
+    // param: window Fenstergröße der Kookkurrenz-Analyse.
+    // param: n Größe der gezählten n-Gramme.
+    public CorpusIngestion(int window, int n) {
+        this(window, n, Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // param: workers Anzahl der zählenden Threads (CPU-gebunden, üblicherweise die Anzahl der Kerne).
+    // param: queueCapacity Höchstzahl tokenisierter Dokumente, die auf einen Worker warten.
+    public CorpusIngestion(int window, int n, int workers, int queueCapacity) {
+        this(window, n, workers, queueCapacity, _ -> {
+        });
+    }
+
+    // param: beforeCount Wird vor dem Zählen jedes Dokuments aufgerufen; eine RuntimeException
+    //        meldet die Datei als fehlgeschlagen, ein Error bricht die Verarbeitung ab.
+    CorpusIngestion(int window, int n, int workers, int queueCapacity, Consumer<Path> beforeCount) {
+        if (window < 1 || n < 1 || workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("window, n, workers und queueCapacity müssen mindestens 1 sein.");
+        }
+        this.window = window;
+        this.n = n;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.beforeCount = beforeCount;
+    }
+
+    // Eine Datei, die nicht verarbeitet werden konnte, mit dem zugehörigen Fehler.
+    public record FileFailure(Path file, Exception error) {
+    }
+
+    // Ergebnis einer Verarbeitung: zusammengeführte Zähler über alle erfolgreich gelesenen Dateien.
+    public record Result(Vocabulary vocabulary,
+                         CooccurrenceMatrix cooccurrences,
+                         NGramCounter nGrams,
+                         long fileCount,
+                         long tokenCount,
+                         List<FileFailure> failures) {
+    }
+
+    // Ein tokenisiertes Dokument auf dem Weg vom Leser zum Worker.
+    private record Document(Path file, String[] tokens) {
+    }
+
+    // Teilergebnis eines Workers.
+    private final class Partial {
+        private final Vocabulary vocabulary = new Vocabulary();
+        private final CooccurrenceMatrix cooccurrences = new CooccurrenceMatrix();
+        private final NGramCounter nGrams = new NGramCounter(n, true);
+        private long fileCount;
+        private long tokenCount;
+
+        // Kodiert das Dokument direkt in das Vocabulary des Workers und zählt es.
+        // Schlägt die n-Gramm-Zählung fehl, werden die Kookkurrenzen des Dokuments wieder
+        // herausgenommen, sodass keine halb gezählte Datei im Teilergebnis bleibt.
+        // (Neue Wörter bleiben im Vocabulary, tragen aber zu keinem Zähler bei.)
+        private void add(Document document) {
+            String[] tokens = document.tokens();
+            int[] ids = new int[tokens.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = vocabulary.idOf(tokens[i]);
+            }
+            cooccurrences.addWindowCounts(ids, window);
+            try {
+                nGrams.addAll(ids);
+            } catch (RuntimeException e) {
+                cooccurrences.removeWindowCounts(ids, window);
+                throw e;
+            }
+            fileCount++;
+            tokenCount += ids.length;
+        }
+
+        private void addAll(Partial other) {
+            int[] idMapping = vocabulary.mergeFrom(other.vocabulary);
+            cooccurrences.addAll(other.cooccurrences, idMapping);
+            nGrams.addAll(other.nGrams, idMapping);
+            fileCount += other.fileCount;
+            tokenCount += other.tokenCount;
+        }
+    }
+
+    // Verarbeitet alle regulären Dateien unterhalb des Verzeichnisses.
+    // throws: IOException, wenn das Verzeichnis selbst nicht gelesen werden kann.
+    public Result ingest(Path directory) throws IOException, InterruptedException {
+        ConcurrentLinkedQueue<FileFailure> failures = new ConcurrentLinkedQueue<>();
+        List<Path> files = listFiles(directory, failures);
+
+        BlockingQueue<Document> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore readPermits = new Semaphore(queueCapacity);
+        // Der erste Error eines Lesers oder Workers; ab dann bricht die Verarbeitung ab.
+        AtomicReference<Throwable> abort = new AtomicReference<>();
+
+        ExecutorService workerPool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Partial>> partials = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                partials.add(workerPool.submit(() -> count(queue, failures, abort)));
+            }
+
+            // close() wartet, bis alle Leser ihr Dokument abgegeben haben.
+            try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Path file : files) {
+                    if (abort.get() != null) {
+                        break;
+                    }
+                    readPermits.acquire();
+                    readers.submit(() -> {
+                        try {
+                            read(file, queue, failures, abort);
+                        } finally {
+                            readPermits.release();
+                        }
+                    });
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                if (!enqueue(queue, END, abort)) {
+                    break;
+                }
+            }
+            if (abort.get() != null) {
+                throw new IllegalStateException("Verarbeitung abgebrochen.", abort.get());
+            }
+
+            Partial result = null;
+            for (Future<Partial> partial : partials) {
+                Partial next = getResult(partial);
+                if (result == null) {
+                    result = next;
+                } else {
+                    result.addAll(next);
+                }
+            }
+            return new Result(result.vocabulary, result.cooccurrences, result.nGrams,
+                    result.fileCount, result.tokenCount, List.copyOf(failures));
+        } finally {
+            workerPool.shutdownNow();
+        }
+    }
+
+    // Leser: tokenisiert eine Datei und reiht sie ein (wartet, solange die Warteschlange voll ist).
+    private static void read(Path file, BlockingQueue<Document> queue, ConcurrentLinkedQueue<FileFailure> failures,
+                             AtomicReference<Throwable> abort) {
+        String[] tokens;
+        try (Stream<String> stream = StreamingTokenizer.tokens(file)) {
+            tokens = stream.toArray(String[]::new);
+        } catch (IOException | RuntimeException e) {
+            failures.add(new FileFailure(file, e));
+            return;
+        } catch (Error e) {
+            abort.compareAndSet(null, e);
+            throw e;
+        }
+
+        if (tokens.length > 0) {
+            try {
+                enqueue(queue, new Document(file, tokens), abort);
+            } catch (InterruptedException e) {
+                failures.add(new FileFailure(file, e));
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Worker: zählt Dokumente, bis das Ende der Warteschlange erreicht ist.
+    private Partial count(BlockingQueue<Document> queue, ConcurrentLinkedQueue<FileFailure> failures,
+                          AtomicReference<Throwable> abort) throws InterruptedException {
+        Partial partial = new Partial();
+        Document document;
+        while ((document = queue.take()) != END) {
+            try {
+                beforeCount.accept(document.file());
+                partial.add(document);
+            } catch (RuntimeException e) {
+                failures.add(new FileFailure(document.file(), e));
+            } catch (Error e) {
+                // Ohne diesen Worker würde die Warteschlange eventuell nie mehr geleert.
+                abort.compareAndSet(null, e);
+                throw e;
+            }
+        }
+        return partial;
+    }
+
+    // Reiht ein Dokument ein und prüft beim Warten regelmäßig, ob abgebrochen wurde.
+    // return: false, wenn die Verarbeitung abgebrochen wurde, bevor ein Platz frei wurde.
+    private static boolean enqueue(BlockingQueue<Document> queue, Document document,
+                                   AtomicReference<Throwable> abort) throws InterruptedException {
+        while (abort.get() == null) {
+            if (queue.offer(document, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sammelt alle regulären Dateien; nicht lesbare Unterverzeichnisse werden als Fehler gemeldet.
+    private static List<Path> listFiles(Path directory, ConcurrentLinkedQueue<FileFailure> failures) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (file.equals(directory)) {
+                    throw e;
+                }
+                failures.add(new FileFailure(file, e));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static Partial getResult(Future<Partial> partial) throws InterruptedException {
+        try {
+            return partial.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker fehlgeschlagen.", e.getCause());
+        }
+    }
+}
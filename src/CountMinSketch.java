@@ -0,0 +1,105 @@
+// Count-Min Sketch: Schätzt Häufigkeiten beliebig vieler 64-Bit-Schlüssel (z.B. n-Gramm-Fingerabdrücke
+// oder gepackte Kookkurrenz-Paare) in festem Speicher.
+// Die Tabelle hat depth Zeilen zu je width Zählern; jeder Schlüssel erhöht in jeder Zeile
+// einen per Hash gewählten Zähler, die Schätzung ist das Minimum dieser Zähler.
+// Garantie: Mit Wahrscheinlichkeit mindestens 1 - delta gilt
+//     wahrer Wert <= estimate(key) <= wahrer Wert + epsilon * totalCount().
+// Die Schätzung ist nie zu klein. Sketches mit denselben Parametern lassen sich addieren
+// (merge), etwa die Teilergebnisse paralleler Abschnitte.
+public class CountMinSketch {
+    private final double epsilon;
+    private final double delta;
+    private final int width;
+    private final int depth;
+    private final long[] table;
+    private long totalCount;
+
+    // param: epsilon Zulässiger Fehler relativ zur Gesamtzahl (z.B. 0.0001).
+    // param: delta Wahrscheinlichkeit, dass eine Schätzung den Fehler überschreitet (z.B. 0.001).
+    public CountMinSketch(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon und delta müssen zwischen 0 und 1 liegen: "
+                    + epsilon + ", " + delta);
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        // Breite e / epsilon, aufgerundet auf eine Zweierpotenz (verkleinert den Fehler nur).
+        int minimumWidth = (int) Math.min(1 << 30, Math.ceil(Math.E / epsilon));
+        this.width = Integer.highestOneBit(Math.max(2, minimumWidth) - 1) << 1;
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.table = new long[Math.multiplyExact(width, depth)];
+    }
+
+    // Zählt den Schlüssel count-mal.
+    // Konservative Aktualisierung: Jeder Zähler wird nur so weit erhöht, wie es die neue
+    // Schätzung erfordert. Das verkleinert den Fehler, ohne die obere Schranke zu verletzen.
+    public void add(long key, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count darf nicht negativ sein: " + count);
+        }
+        totalCount += count;
+
+        long target = estimate(key) + count;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, key);
+            if (table[index] < target) {
+                table[index] = target;
+            }
+        }
+    }
+
+    // Obere Schranke der Häufigkeit des Schlüssels (siehe Garantie oben).
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[index(row, key)]);
+        }
+        return estimate;
+    }
+
+    // Addiert einen Sketch mit denselben Parametern (z.B. aus einem anderen Abschnitt) zu diesem.
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches mit unterschiedlicher Größe können nicht vereinigt werden: "
+                    + depth + "x" + width + " und " + other.depth + "x" + other.width);
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    // Summe aller gezählten Häufigkeiten.
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public double epsilon() {
+        return epsilon;
+    }
+
+    public double delta() {
+        return delta;
+    }
+
+    // Speicherbedarf der Zählertabelle in Bytes.
+    public long sizeInBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return "CountMinSketch[" + depth + "x" + width + ", total=" + totalCount + "]";
+    }
+
+    // Wählt den Zähler des Schlüssels in der Zeile; jede Zeile nutzt einen eigenen Startwert.
+    private int index(int row, long key) {
+        long hash = key ^ ((row + 1) * 0x9E3779B97F4A7C15L);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return row * width + ((int) hash & (width - 1));
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// Exakte Aggregation von (Schlüssel, Anzahl)-Paaren, die größer als der Heap sein darf
+// (externe Aggregation wie in Datenbanken):
+// - Die Paare werden in einem Puffer fester Größe gesammelt; gleiche Schlüssel werden dabei
+//   bereits addiert.
+// - Ist der Puffer voll, wird er nach Schlüssel sortiert und als Lauf (run) in ein temporäres
+//   Verzeichnis geschrieben. Schlüssel werden als Differenz zum Vorgänger kodiert, Schlüssel
+//   und Anzahl als Varint; sortierte gepackte Paare brauchen so meist nur 2-4 Bytes.
+// - forEachSorted mischt alle Läufe (k-Wege-Mischen) und liefert jeden Schlüssel genau einmal
+//   mit seiner Gesamtanzahl in aufsteigender Reihenfolge. Bei sehr vielen Läufen wird in
+//   mehreren Durchgängen gemischt.
+// Der Speicherbedarf ist durch bufferCapacity begrenzt, unabhängig von der Anzahl der Schlüssel.
+//
+// Verwendung:
+// try (ExternalAggregator aggregator = new ExternalAggregator(1 << 22, tempDirectory)) {
+//     aggregator.add(key, 1);
+//     aggregator.forEachSorted((key, count) -> ...);
+// }
+public class ExternalAggregator implements AutoCloseable {
+    // Höchstzahl gleichzeitig gemischter Läufe (je ein Lesepuffer pro Lauf).
+    private static final int MAX_MERGE_WIDTH = 64;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final int bufferCapacity;
+    private final LongLongHashMap buffer;
+    private final long[] sortedKeys;
+    private final Path directory;
+    private final List<Path> runs = new ArrayList<>();
+    private int nextRunId;
+    private long spilledBytes;
+
+    // param: bufferCapacity Anzahl verschiedener Schlüssel im Speicher, bevor ein Lauf geschrieben wird.
+    // param: tempDirectory Verzeichnis, in dem ein eigenes Unterverzeichnis für die Läufe angelegt wird.
+    public ExternalAggregator(int bufferCapacity, Path tempDirectory) throws IOException {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("bufferCapacity muss mindestens 1 sein: " + bufferCapacity);
+        }
+        this.bufferCapacity = bufferCapacity;
+        this.buffer = new LongLongHashMap(bufferCapacity);
+        this.sortedKeys = new long[bufferCapacity];
+        this.directory = Files.createTempDirectory(tempDirectory, "aggregation-");
+    }
+
+    // Wie oben, mit dem temporären Verzeichnis des Systems.
+    public ExternalAggregator(int bufferCapacity) throws IOException {
+        this(bufferCapacity, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    // Addiert count zum Schlüssel; schreibt den Puffer als Lauf, sobald er voll ist.
+    public void add(long key, long count) throws IOException {
+        buffer.addTo(key, count);
+        if (buffer.size() >= bufferCapacity) {
+            spill();
+        }
+    }
+
+    // Liefert alle Schlüssel mit ihrer Gesamtanzahl in aufsteigender Reihenfolge.
+    // Danach ist der Aggregator leer und kann erneut befüllt werden.
+    public void forEachSorted(LongLongHashMap.LongLongConsumer consumer) throws IOException {
+        if (runs.isEmpty()) {
+            // Alles passt in den Speicher: Kein Lauf nötig.
+            int size = sortBuffer();
+            for (int i = 0; i < size; i++) {
+                consumer.accept(sortedKeys[i], buffer.get(sortedKeys[i]));
+            }
+            buffer.clear();
+            return;
+        }
+
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        // Zwischendurchgänge, bis höchstens MAX_MERGE_WIDTH Läufe übrig sind.
+        while (runs.size() > MAX_MERGE_WIDTH) {
+            List<Path> group = new ArrayList<>(runs.subList(0, MAX_MERGE_WIDTH));
+            Path merged = nextRunPath();
+            try (RunWriter writer = new RunWriter(merged)) {
+                merge(group, writer::write);
+                spilledBytes += writer.bytesWritten();
+            } catch (Throwable e) {
+                // Die Gruppe bleibt in runs; nur der halb geschriebene Lauf wird entfernt.
+                try {
+                    Files.deleteIfExists(merged);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            // Erst nach erfolgreichem Mischen ersetzt der neue Lauf die Gruppe.
+            runs.subList(0, MAX_MERGE_WIDTH).clear();
+            runs.add(merged);
+            delete(group);
+        }
+
+        List<Path> finalRuns = new ArrayList<>(runs);
+        runs.clear();
+        try {
+            merge(finalRuns, consumer::accept);
+        } finally {
+            delete(finalRuns);
+        }
+    }
+
+    // Anzahl der bisher geschriebenen Läufe (inklusive Zwischendurchgängen).
+    public int runCount() {
+        return nextRunId;
+    }
+
+    // Bisher auf die Platte geschriebene Bytes.
+    public long spilledBytes() {
+        return spilledBytes;
+    }
+
+    // Löscht alle Läufe und das temporäre Verzeichnis. Es werden alle Dateien des eigenen
+    // Verzeichnisses gelöscht, also auch Reste eines fehlgeschlagenen Schreib- oder Mischvorgangs.
+    @Override
+    public void close() throws IOException {
+        runs.clear();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // Sortiert den Puffer nach Schlüssel und schreibt ihn als neuen Lauf.
+    private void spill() throws IOException {
+        int size = sortBuffer();
+        Path run = nextRunPath();
+        try (RunWriter writer = new RunWriter(run)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(sortedKeys[i], buffer.get(sortedKeys[i]));
+            }
+            spilledBytes += writer.bytesWritten();
+        }
+        runs.add(run);
+        buffer.clear();
+    }
+
+    // Kopiert die Schlüssel des Puffers nach sortedKeys und sortiert sie.
+    // return: Anzahl der Schlüssel.
+    private int sortBuffer() {
+        int[] size = {0};
+        buffer.forEach((key, _) -> sortedKeys[size[0]++] = key);
+        Arrays.sort(sortedKeys, 0, size[0]);
+        return size[0];
+    }
+
+    // k-Wege-Mischen: Ein Min-Heap hält pro Lauf den aktuellen Schlüssel;
+    // gleiche Schlüssel aus verschiedenen Läufen werden addiert.
+    // Jeder Leser wird geschlossen, sobald sein Lauf erschöpft ist; bei einem Fehler (auch beim
+    // Weiterlesen eines gerade nicht im Heap liegenden Lesers) werden alle geöffneten geschlossen.
+    private static void merge(List<Path> runs, PairSink consumer) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(
+                Math.max(1, runs.size()), Comparator.comparingLong(RunReader::key));
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    heap.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                long key = reader.key();
+                long count = reader.count();
+                advance(heap, reader);
+                while (!heap.isEmpty() && heap.peek().key() == key) {
+                    RunReader same = heap.poll();
+                    count += same.count();
+                    advance(heap, same);
+                }
+                consumer.accept(key, count);
+            }
+        } catch (Throwable e) {
+            for (RunReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static void advance(PriorityQueue<RunReader> heap, RunReader reader) throws IOException {
+        if (reader.next()) {
+            heap.add(reader);
+        } else {
+            reader.close();
+        }
+    }
+
+    private Path nextRunPath() {
+        return directory.resolve("run-" + nextRunId++ + ".bin");
+    }
+
+    private static void delete(List<Path> paths) throws IOException {
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // Ziel des Mischens: der Consumer des Aufrufers oder ein neuer Lauf.
+    @FunctionalInterface
+    private interface PairSink {
+        void accept(long key, long count) throws IOException;
+    }
+
+    // Schreibt einen sortierten Lauf: Schlüsseldifferenzen und Anzahlen als Varint.
+    private static final class RunWriter implements AutoCloseable {
+        private final OutputStream out;
+        private long previousKey = Long.MIN_VALUE;
+        private long bytesWritten;
+
+        private RunWriter(Path path) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(path), IO_BUFFER_SIZE);
+        }
+
+        // Die Schlüssel müssen aufsteigend (mit Vorzeichen) sortiert sein; die Differenz ist
+        // dann als vorzeichenlose Zahl nie negativ, auch wenn sie als long überläuft.
+        private void write(long key, long count) throws IOException {
+            writeVarint(key - previousKey);
+            writeVarint(count);
+            previousKey = key;
+        }
+
+        private void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+                bytesWritten++;
+            }
+            out.write((int) value);
+            bytesWritten++;
+        }
+
+        private long bytesWritten() {
+            return bytesWritten;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // Liest einen Lauf Eintrag für Eintrag.
+    private static final class RunReader implements AutoCloseable {
+        private final InputStream in;
+        private long key = Long.MIN_VALUE;
+        private long count;
+
+        private RunReader(Path path) throws IOException {
+            this.in = new BufferedInputStream(Files.newInputStream(path), IO_BUFFER_SIZE);
+        }
+
+        // Liest den nächsten Eintrag.
+        // return: false am Ende des Laufs.
+        private boolean next() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return false;
+            }
+            key += readVarint(first);
+            count = readVarint(in.read());
+            return true;
+        }
+
+        private long readVarint(int first) throws IOException {
+            long value = 0;
+            int shift = 0;
+            int b = first;
+            while (true) {
+                if (b < 0) {
+                    throw new EOFException("Unvollständiger Lauf.");
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+                b = in.read();
+            }
+        }
+
+        private long key() {
+            return key;
+        }
+
+        private long count() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
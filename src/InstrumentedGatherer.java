@@ -0,0 +1,262 @@
+import com.google.gson.GsonBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+// Dekorator, der einen beliebigen Gatherer (z.B. CooccurrenceAnalysisGatherer) unverändert
+// ausführt und dabei Messwerte sammelt:
+// - Anzahl der eingehenden und ausgegebenen Elemente,
+// - Zeit im Integrator, davon Zeit in nachgelagerten Stufen (Downstream),
+// - Zeit im Finisher,
+// - vorzeitige Abbrüche (Integrator liefert false),
+// - Anzahl der Zustände (Teilabschnitte) und Combiner-Aufrufe,
+// - allozierte Bytes pro Thread (über com.sun.management.ThreadMXBean), unterschieden nach
+//   Thread.threadId(); der Name dient nur als Beschriftung im Bericht ("name #id").
+// Die Werte werden während der Verarbeitung in LongAdder geschrieben und können jederzeit,
+// auch bei langlaufenden Streams, über metrics() abgefragt und mit toJson(...) exportiert werden.
+// Da nachgelagerte Stufen synchron aus push aufgerufen werden, zählen deren Zeit und Allokationen
+// zum Integrator; selfNanos im Bericht zieht die Zeit wieder ab.
+//
+// Beispiel:
+// InstrumentedGatherer<String, ?, String> nGrams = InstrumentedGatherer.of("n-Gramme", new NGramGatherer(3));
+// InstrumentedGatherer<String, ?, Integer> lengths = InstrumentedGatherer.ofFunction("Länge", String::length);
+// tokens.stream().gather(nGrams).gather(lengths).toList();
+// System.out.println(InstrumentedGatherer.toJson(List.of(nGrams.metrics(), lengths.metrics())));
+public class InstrumentedGatherer<T, A, R> implements Gatherer<T, InstrumentedGatherer.State<A, R>, R> {
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    private final Gatherer<T, A, R> gatherer;
+    private final Metrics metrics;
+
+    private InstrumentedGatherer(String name, Gatherer<T, A, R> gatherer) {
+        this.gatherer = gatherer;
+        this.metrics = new Metrics(name);
+    }
+
+    // Umhüllt einen Gatherer.
+    // param: name Name der Stufe im Bericht.
+    public static <T, A, R> InstrumentedGatherer<T, A, R> of(String name, Gatherer<T, A, R> gatherer) {
+        return new InstrumentedGatherer<>(name, gatherer);
+    }
+
+    // Umhüllt eine einfache Stufe wie map(function), damit sie wie ein Gatherer gemessen werden kann.
+    public static <T, R> InstrumentedGatherer<T, Void, R> ofFunction(String name, Function<? super T, ? extends R> function) {
+        return of(name, Gatherer.of(Integrator.ofGreedy((_, element, downstream) ->
+                downstream.push(function.apply(element)))));
+    }
+
+    // Die Messwerte dieser Stufe (über alle Streams, die diesen Gatherer verwendet haben).
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    // Messwerte einer Stufe. Alle Zähler sind threadsicher.
+    public static final class Metrics {
+        private final String name;
+        private final LongAdder elementsIn = new LongAdder();
+        private final LongAdder elementsOut = new LongAdder();
+        private final LongAdder integratorNanos = new LongAdder();
+        private final LongAdder downstreamNanos = new LongAdder();
+        private final LongAdder finisherNanos = new LongAdder();
+        private final LongAdder shortCircuits = new LongAdder();
+        private final LongAdder states = new LongAdder();
+        private final LongAdder combinerCalls = new LongAdder();
+        // Schlüssel ist die Thread-ID: Namen können sich wiederholen (z.B. leere Namen virtueller Threads).
+        private final Map<Long, ThreadAllocation> allocatedBytesByThread = new ConcurrentHashMap<>();
+
+        private Metrics(String name) {
+            this.name = name;
+        }
+
+        // Momentaufnahme aller Werte.
+        public Report report() {
+            long integrator = integratorNanos.sum();
+            long downstream = downstreamNanos.sum();
+            Map<String, Long> allocated = new TreeMap<>();
+            allocatedBytesByThread.forEach((id, thread) -> allocated.put(thread.label(id), thread.bytes().sum()));
+            long allocatedTotal = THREADS != null ? allocated.values().stream().mapToLong(Long::longValue).sum() : -1;
+            return new Report(name, elementsIn.sum(), elementsOut.sum(), integrator, downstream,
+                    integrator - downstream, finisherNanos.sum(), shortCircuits.sum(), states.sum(),
+                    combinerCalls.sum(), allocatedTotal, allocated);
+        }
+
+        // Addiert die allozierten Bytes zum Thread, der sie verursacht hat.
+        private LongAdder allocatedBytes(Thread thread) {
+            return allocatedBytesByThread.computeIfAbsent(thread.threadId(),
+                    _ -> new ThreadAllocation(thread.getName(), new LongAdder())).bytes();
+        }
+    }
+
+    // Allokationszähler eines Threads; der Name wird beim ersten Auftreten festgehalten.
+    private record ThreadAllocation(String name, LongAdder bytes) {
+        private String label(long id) {
+            return name.isEmpty() ? "#" + id : name + " #" + id;
+        }
+    }
+
+    // Bericht einer Stufe (Zeiten in Nanosekunden). allocatedBytes ist -1, wenn die JVM
+    // die Messung pro Thread nicht unterstützt. allocatedBytesByThread ist nach "name #id" beschriftet.
+    public record Report(String stage,
+                         long elementsIn,
+                         long elementsOut,
+                         long integratorNanos,
+                         long downstreamNanos,
+                         long selfNanos,
+                         long finisherNanos,
+                         long shortCircuits,
+                         long states,
+                         long combinerCalls,
+                         long allocatedBytes,
+                         Map<String, Long> allocatedBytesByThread) {
+    }
+
+    // Exportiert die Berichte mehrerer Stufen als JSON-Array.
+    public static String toJson(Collection<Metrics> metrics) {
+        List<Report> reports = new ArrayList<>();
+        for (Metrics stage : metrics) {
+            reports.add(stage.report());
+        }
+        return new GsonBuilder().setPrettyPrinting().create().toJson(reports);
+    }
+
+    // Zustand: der Zustand des umhüllten Gatherers plus ein zählender Downstream.
+    public static final class State<A, R> {
+        private A state;
+        private final CountingDownstream<R> downstream;
+        // Thread, der den Zustand zuletzt benutzt hat, und dessen Allokationszähler.
+        private Thread thread;
+        private LongAdder threadAllocatedBytes;
+
+        private State(A state, Metrics metrics) {
+            this.state = state;
+            this.downstream = new CountingDownstream<>(metrics);
+        }
+    }
+
+    // Leitet Elemente an den echten Downstream weiter und misst Anzahl und Zeit.
+    private static final class CountingDownstream<R> implements Downstream<R> {
+        private final Metrics metrics;
+        private Downstream<? super R> delegate;
+
+        private CountingDownstream(Metrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean push(R element) {
+            metrics.elementsOut.increment();
+            long start = System.nanoTime();
+            boolean more = delegate.push(element);
+            metrics.downstreamNanos.add(System.nanoTime() - start);
+            return more;
+        }
+
+        @Override
+        public boolean isRejecting() {
+            return delegate.isRejecting();
+        }
+    }
+
+    @Override
+    public Supplier<State<A, R>> initializer() {
+        Supplier<A> initializer = gatherer.initializer();
+        return () -> {
+            metrics.states.increment();
+            return new State<>(initializer.get(), metrics);
+        };
+    }
+
+    @Override
+    public Integrator<State<A, R>, T, R> integrator() {
+        Integrator<A, T, R> integrator = gatherer.integrator();
+        // Greedy-Integratoren bleiben greedy, damit der Stream seine Optimierungen behält.
+        if (integrator instanceof Integrator.Greedy<A, T, R>) {
+            return Integrator.ofGreedy((state, element, downstream) -> integrate(integrator, state, element, downstream));
+        }
+        return Integrator.of((state, element, downstream) -> integrate(integrator, state, element, downstream));
+    }
+
+    @Override
+    public BinaryOperator<State<A, R>> combiner() {
+        BinaryOperator<A> combiner = gatherer.combiner();
+        // Sequenzielle Gatherer bleiben sequenziell.
+        if (combiner == Gatherer.<A>defaultCombiner()) {
+            return Gatherer.defaultCombiner();
+        }
+        return (left, right) -> {
+            metrics.combinerCalls.increment();
+            long allocatedBefore = allocatedBytes();
+            left.state = combiner.apply(left.state, right.state);
+            recordAllocation(left, allocatedBefore);
+            return left;
+        };
+    }
+
+    @Override
+    public BiConsumer<State<A, R>, Downstream<? super R>> finisher() {
+        BiConsumer<A, Downstream<? super R>> finisher = gatherer.finisher();
+        return (state, downstream) -> {
+            state.downstream.delegate = downstream;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            finisher.accept(state.state, state.downstream);
+            metrics.finisherNanos.add(System.nanoTime() - start);
+            recordAllocation(state, allocatedBefore);
+        };
+    }
+
+    private boolean integrate(Integrator<A, T, R> integrator, State<A, R> state, T element,
+                              Downstream<? super R> downstream) {
+        state.downstream.delegate = downstream;
+        metrics.elementsIn.increment();
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        boolean more = integrator.integrate(state.state, element, state.downstream);
+        metrics.integratorNanos.add(System.nanoTime() - start);
+        recordAllocation(state, allocatedBefore);
+
+        if (!more) {
+            metrics.shortCircuits.increment();
+        }
+        return more;
+    }
+
+    private void recordAllocation(State<A, R> state, long allocatedBefore) {
+        if (THREADS == null) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        if (state.thread != current) {
+            // Nur bei einem Threadwechsel nachschlagen, nicht pro Element.
+            state.thread = current;
+            state.threadAllocatedBytes = metrics.allocatedBytes(current);
+        }
+        state.threadAllocatedBytes.add(allocatedBytes() - allocatedBefore);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    // Liefert die ThreadMXBean, sofern sie allozierte Bytes pro Thread messen kann.
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
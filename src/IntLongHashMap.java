@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+// Hash-Map von int-Schlüsseln auf long-Werte mit offener Adressierung (lineares Sondieren).
+// Im Gegensatz zu HashMap<Integer, Long> werden weder Schlüssel noch Werte geboxt,
+// sodass Erhöhungen eines Zählers (addTo) keine Objekte allozieren.
+// Schlüssel müssen nicht-negativ sein (z.B. Token-IDs), -1 markiert freie Plätze.
+public class IntLongHashMap {
+    private static final int FREE = -1;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public IntLongHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    // param: expectedSize Anzahl der erwarteten Einträge (vermeidet Vergrößerungen).
+    public IntLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Funktionales Interface für die Iteration ohne Boxing.
+    @FunctionalInterface
+    public interface IntLongConsumer {
+        void accept(int key, long value);
+    }
+
+    // Addiert delta zum Wert des Schlüssels (fehlende Schlüssel zählen als 0).
+    // return: Der neue Wert.
+    public long addTo(int key, long delta) {
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    // Setzt den Wert des Schlüssels.
+    public void put(int key, long value) {
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Liefert den Wert des Schlüssels oder 0, wenn er fehlt.
+    public long get(int key) {
+        int slot = findSlot(key);
+        return keys[slot] == key ? values[slot] : 0L;
+    }
+
+    // Entfernt den Schlüssel.
+    // return: Der bisherige Wert oder 0, wenn der Schlüssel fehlte.
+    public long remove(int key) {
+        int slot = findSlot(key);
+        if (keys[slot] != key) {
+            return 0L;
+        }
+
+        long value = values[slot];
+        // Rückwärtsverschiebung statt Grabstein: Nachfolgende Einträge derselben Sondierungskette
+        // rücken in die Lücke, damit findSlot weiterhin beim ersten freien Platz abbrechen darf.
+        int gap = slot;
+        int next = slot;
+        while (keys[next = (next + 1) & mask] != FREE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0L;
+        size--;
+        return value;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[findSlot(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Ruft den Consumer für jeden Eintrag auf (Reihenfolge ist nicht definiert).
+    public void forEach(IntLongConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // Addiert alle Einträge einer anderen Map zu dieser.
+    public void addAll(IntLongHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    // Sucht den Platz des Schlüssels oder den ersten freien Platz seiner Sondierungskette.
+    private int findSlot(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new long[capacity];
+        mask = capacity - 1;
+        // Füllgrad von höchstens 75 %, damit die Sondierungsketten kurz bleiben.
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    // Verteilt aufeinanderfolgende IDs gleichmäßig über die Tabelle (Fibonacci-Hashing).
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 4 / 3 + 1) - 1) << 1;
+        return Math.max(DEFAULT_CAPACITY, capacity);
+    }
+}
@@ -0,0 +1,268 @@
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Schreibt Ergebnisse zeilen- bzw. eintragsweise als JSON, statt wie Main.writeToJsonFile
+// zuerst das ganze Objekt in einen String zu serialisieren. Jeder Eintrag geht direkt über
+// Gsons JsonWriter in einen gepufferten FileChannel, sodass Ergebnisse bereits während
+// der Analyse geschrieben werden können und der Speicherbedarf nicht mit der Ausgabe wächst.
+//
+// Formate:
+// - PRETTY:  wie Main.writeToJsonFile (eingerückt), z.B. {"see": {"der": 3}}
+// - COMPACT: dieselbe Struktur ohne Leerraum
+// - NDJSON:  ein JSON-Wert pro Zeile, z.B. {"center":"see","neighbors":{"der":3}}
+//
+// Verwendung:
+// try (JsonResultWriter writer = JsonResultWriter.cooccurrences(path, Format.NDJSON)) {
+//     writer.writeCooccurrenceRow("see", row);
+// }
+public class JsonResultWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        PRETTY, COMPACT, NDJSON
+    }
+
+    // Art des Ergebnisses, bestimmt die Struktur der Ausgabe.
+    private enum Kind {
+        // ["a b", ...] bzw. ein String pro Zeile
+        NGRAMS,
+        // {"a b": 3, ...} bzw. {"ngram":"a b","count":3} pro Zeile
+        NGRAM_COUNTS,
+        // {"see": {"der": 3}, ...} bzw. {"center":"see","neighbors":{"der":3}} pro Zeile
+        COOCCURRENCES
+    }
+
+    private final Writer out;
+    private final JsonWriter json;
+    private final Format format;
+    private final Kind kind;
+
+    private JsonResultWriter(Path path, Format format, Kind kind) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.out = writer;
+            this.json = new JsonWriter(out);
+            this.format = format;
+            this.kind = kind;
+
+            if (format == Format.PRETTY) {
+                json.setIndent("  ");
+            }
+            if (format == Format.NDJSON) {
+                // Erlaubt mehrere JSON-Werte auf oberster Ebene (einen pro Zeile).
+                json.setStrictness(Strictness.LENIENT);
+            } else if (kind == Kind.NGRAMS) {
+                json.beginArray();
+            } else {
+                json.beginObject();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Ohne fertiges Objekt ruft niemand close() auf: Writer bzw. Kanal hier freigeben.
+            try {
+                if (writer != null) {
+                    writer.close();
+                } else {
+                    channel.close();
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // Öffnet einen Writer für eine n-Gramm-Liste (siehe produceNGramsWithGatherer).
+    public static JsonResultWriter nGrams(Path path, Format format) throws IOException {
+        return new JsonResultWriter(path, format, Kind.NGRAMS);
+    }
+
+    // Öffnet einen Writer für n-Gramm-Häufigkeiten (siehe countNGrams).
+    public static JsonResultWriter nGramCounts(Path path, Format format) throws IOException {
+        return new JsonResultWriter(path, format, Kind.NGRAM_COUNTS);
+    }
+
+    // Öffnet einen Writer für Kookkurrenzen, eine Zeile pro Zentrumswort.
+    public static JsonResultWriter cooccurrences(Path path, Format format) throws IOException {
+        return new JsonResultWriter(path, format, Kind.COOCCURRENCES);
+    }
+
+    public void writeNGram(String nGram) throws IOException {
+        requireKind(Kind.NGRAMS);
+        json.value(nGram);
+        endRecord();
+    }
+
+    public void writeNGramCount(String nGram, long count) throws IOException {
+        requireKind(Kind.NGRAM_COUNTS);
+        if (format == Format.NDJSON) {
+            json.beginObject().name("ngram").value(nGram).name("count").value(count).endObject();
+        } else {
+            json.name(nGram).value(count);
+        }
+        endRecord();
+    }
+
+    public void writeCooccurrenceRow(String center, Map<String, Long> neighbors) throws IOException {
+        beginCooccurrenceRow(center);
+        for (Map.Entry<String, Long> neighbor : neighbors.entrySet()) {
+            json.name(neighbor.getKey()).value(neighbor.getValue());
+        }
+        endCooccurrenceRow();
+    }
+
+    // Schreibt eine Zeile einer CooccurrenceMatrix, ohne sie vorher in eine Map umzuwandeln.
+    public void writeCooccurrenceRow(int center, IntLongHashMap neighbors, Vocabulary vocabulary) throws IOException {
+        beginCooccurrenceRow(vocabulary.wordOf(center));
+        try {
+            neighbors.forEach((neighbor, count) -> {
+                try {
+                    json.name(vocabulary.wordOf(neighbor)).value(count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        endCooccurrenceRow();
+    }
+
+    // Schließt die Struktur ab und gibt den Kanal frei.
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format != Format.NDJSON) {
+                if (kind == Kind.NGRAMS) {
+                    json.endArray();
+                } else {
+                    json.endObject();
+                }
+            }
+            json.flush();
+        } finally {
+            json.close();
+        }
+    }
+
+    // Schreibt eine ganze Kookkurrenz-Matrix zeilenweise.
+    public static void writeCooccurrences(Path path, Format format,
+                                          CooccurrenceMatrix matrix, Vocabulary vocabulary) throws IOException {
+        try (JsonResultWriter writer = cooccurrences(path, format)) {
+            for (int center = 0; center < matrix.rowCapacity(); center++) {
+                IntLongHashMap row = matrix.row(center);
+                if (row != null) {
+                    writer.writeCooccurrenceRow(center, row, vocabulary);
+                }
+            }
+        }
+    }
+
+    // Schreibt die Kookkurrenzen eines ExternalAggregator mit gepackten Paaren (center << 32) | neighbor.
+    // Die Paare kommen nach Zentrum sortiert an, daher liegt immer nur eine Zeile im Speicher.
+    public static void writeCooccurrences(Path path, Format format,
+                                          ExternalAggregator pairs, Vocabulary vocabulary) throws IOException {
+        try (JsonResultWriter writer = cooccurrences(path, format)) {
+            int[] center = {-1};
+            Map<String, Long> row = new LinkedHashMap<>();
+            try {
+                pairs.forEachSorted((pair, count) -> {
+                    int pairCenter = (int) (pair >>> 32);
+                    if (pairCenter != center[0] && !row.isEmpty()) {
+                        writeRow(writer, vocabulary.wordOf(center[0]), row);
+                    }
+                    center[0] = pairCenter;
+                    row.put(vocabulary.wordOf((int) pair), count);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!row.isEmpty()) {
+                writer.writeCooccurrenceRow(vocabulary.wordOf(center[0]), row);
+            }
+        }
+    }
+
+    // Schreibt alle n-Gramm-Häufigkeiten eines NGramCounter (mit gespeicherten Tupeln).
+    public static void writeNGramCounts(Path path, Format format,
+                                        NGramCounter counter, Vocabulary vocabulary) throws IOException {
+        try (JsonResultWriter writer = nGramCounts(path, format)) {
+            try {
+                counter.forEachNGram((nGram, count) -> {
+                    try {
+                        writer.writeNGramCount(vocabulary.decodeNGram(nGram), count);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Schreibt n-Gramme, während sie erzeugt werden (z.B. aus einem Stream-Iterator).
+    public static void writeNGrams(Path path, Format format, Iterable<String> nGrams) throws IOException {
+        try (JsonResultWriter writer = nGrams(path, format)) {
+            for (String nGram : nGrams) {
+                writer.writeNGram(nGram);
+            }
+        }
+    }
+
+    // Schreibt und leert die Zeile; für Lambdas ohne geprüfte Exceptions.
+    private static void writeRow(JsonResultWriter writer, String center, Map<String, Long> row) {
+        try {
+            writer.writeCooccurrenceRow(center, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        row.clear();
+    }
+
+    private void beginCooccurrenceRow(String center) throws IOException {
+        requireKind(Kind.COOCCURRENCES);
+        if (format == Format.NDJSON) {
+            json.beginObject().name("center").value(center).name("neighbors");
+        } else {
+            json.name(center);
+        }
+        json.beginObject();
+    }
+
+    private void endCooccurrenceRow() throws IOException {
+        json.endObject();
+        if (format == Format.NDJSON) {
+            json.endObject();
+        }
+        endRecord();
+    }
+
+    // Im NDJSON-Format endet jeder Datensatz mit einem Zeilenumbruch.
+    // JsonWriter puffert nicht selbst, daher landet der Umbruch an der richtigen Stelle.
+    private void endRecord() throws IOException {
+        if (format == Format.NDJSON) {
+            out.write('\n');
+        }
+    }
+
+    private void requireKind(Kind expected) {
+        if (kind != expected) {
+            throw new IllegalStateException("Dieser Writer schreibt " + kind + ", nicht " + expected + ".");
+        }
+    }
+}
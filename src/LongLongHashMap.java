@@ -0,0 +1,196 @@
+import java.util.Arrays;
+
+// Hash-Map von long-Schlüsseln auf long-Werte mit offener Adressierung (lineares Sondieren),
+// das Gegenstück zu IntLongHashMap für 64-Bit-Schlüssel wie n-Gramm-Fingerabdrücke
+// oder gepackte (Zentrum, Nachbar)-Paare.
+// Alle long-Werte sind als Schlüssel erlaubt: 0 markiert in der Tabelle freie Plätze,
+// der Schlüssel 0 selbst wird deshalb in eigenen Feldern gespeichert.
+public class LongLongHashMap {
+    private static final long FREE = 0L;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    public LongLongHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    // param: expectedSize Anzahl der erwarteten Einträge (vermeidet Vergrößerungen).
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Funktionales Interface für die Iteration ohne Boxing.
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    // Addiert delta zum Wert des Schlüssels (fehlende Schlüssel zählen als 0).
+    // return: Der neue Wert.
+    public long addTo(long key, long delta) {
+        if (key == FREE) {
+            hasFreeKey = true;
+            return freeKeyValue += delta;
+        }
+
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        insert(slot, key, delta);
+        return delta;
+    }
+
+    // Setzt den Wert des Schlüssels.
+    public void put(long key, long value) {
+        if (key == FREE) {
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        insert(slot, key, value);
+    }
+
+    // Liefert den Wert des Schlüssels oder 0, wenn er fehlt.
+    public long get(long key) {
+        return getOrDefault(key, 0L);
+    }
+
+    // Liefert den Wert des Schlüssels oder missing, wenn er fehlt.
+    public long getOrDefault(long key, long missing) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missing;
+        }
+        int slot = findSlot(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    public boolean containsKey(long key) {
+        return key == FREE ? hasFreeKey : keys[findSlot(key)] == key;
+    }
+
+    // Entfernt den Schlüssel (Rückwärtsverschiebung wie in IntLongHashMap.remove).
+    // return: Der bisherige Wert oder 0, wenn der Schlüssel fehlte.
+    public long remove(long key) {
+        if (key == FREE) {
+            long value = hasFreeKey ? freeKeyValue : 0L;
+            hasFreeKey = false;
+            freeKeyValue = 0L;
+            return value;
+        }
+
+        int slot = findSlot(key);
+        if (keys[slot] != key) {
+            return 0L;
+        }
+
+        long value = values[slot];
+        int gap = slot;
+        int next = slot;
+        while (keys[next = (next + 1) & mask] != FREE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0L;
+        size--;
+        return value;
+    }
+
+    public int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Entfernt alle Einträge, behält aber die Tabellengröße (für die Wiederverwendung als Puffer).
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0L);
+        size = 0;
+        hasFreeKey = false;
+        freeKeyValue = 0L;
+    }
+
+    // Ruft den Consumer für jeden Eintrag auf (Reihenfolge ist nicht definiert).
+    public void forEach(LongLongConsumer consumer) {
+        if (hasFreeKey) {
+            consumer.accept(FREE, freeKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private void insert(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Sucht den Platz des Schlüssels oder den ersten freien Platz seiner Sondierungskette.
+    private int findSlot(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        // Füllgrad von höchstens 75 %, damit die Sondierungsketten kurz bleiben.
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    // Verteilt auch Schlüssel mit wenig Entropie in den niedrigen Bits gleichmäßig.
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 4 / 3 + 1) - 1) << 1;
+        return Math.max(DEFAULT_CAPACITY, capacity);
+    }
+}
@@ -2,19 +2,28 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
-import java.util.stream.Gatherers;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.Map.Entry.comparingByValue;
 import static java.util.stream.Collectors.toMap;
 
 public class Main {
+    // Explizite Definition der Wort-Zeichenklasse:
+    // [a-z] = Basis-Alphabet, [äöüß] = Deutsche Sonderzeichen.
+    // Wird einmal kompiliert statt bei jedem Aufruf von produceTokensFromText.
+    private static final Pattern WORD_PATTERN = Pattern.compile("[a-zäöüß]+");
+
     public static List<String> produceNGramsWithoutGatherer(int n, List<String> tokens) {
         // Randfallprüfung: Ungültige n-Größe.
         if (n < 1 || n > tokens.size()) {
@@ -47,15 +56,210 @@ public class Main {
             return tokens;
         }
 
-        // Gatherers.windowSliding(n): Die deklarative Zwischenoperation,
-        // die den Stream in gleitende Fenster (Listen von Wörtern) umwandelt.
-        // map: Verbindet die Liste von Wörtern in jedem Fenster zu einem String.
+        // NGramGatherer: Die deklarative Zwischenoperation, die gleitende Fenster über einen
+        // Ringpuffer bildet und jedes Fenster direkt als String ausgibt
+        // (statt wie Gatherers.windowSliding(n) pro Fenster eine Liste zu erzeugen).
         return tokens.stream()
-                .gather(Gatherers.windowSliding(n))
-                .map(w -> String.join(" ", w))
+                .gather(new NGramGatherer(n))
+                .toList();
+    }
+
+    // ID-basierte Variante: Arbeitet auf einem mit Vocabulary kodierten Korpus.
+    // param: n Die Größe der zu erzeugenden n-Gramme.
+    // param: ids Das kodierte Korpus (siehe Vocabulary.encode).
+    // return: Eine Liste von n-Grammen als Arrays von Token-IDs (dekodierbar mit Vocabulary.decodeNGram).
+    public static List<int[]> produceNGramsWithoutGatherer(int n, int[] ids) {
+        // Randfallprüfung: Ungültige n-Größe.
+        if (n < 1 || n > ids.length) {
+            return List.of();
+        }
+
+        // Arrays.copyOfRange: Kopiert nur n primitive IDs, ohne Strings zu erzeugen.
+        return IntStream.range(0, ids.length - n + 1)
+                .mapToObj(i -> Arrays.copyOfRange(ids, i, i + n))
                 .toList();
     }
 
+    // ID-basierte Variante von produceNGramsWithGatherer. Liest die n-Gramme mit
+    // NGramGatherer.forEachNGram direkt aus dem Array, ohne jede ID zu Integer zu boxen;
+    // pro n-Gramm entsteht nur die Kopie des wiederverwendeten Puffers.
+    public static List<int[]> produceNGramsWithGatherer(int n, int[] ids) {
+        // Randfallprüfung: Ungültige n-Größe.
+        if (n < 1 || n > ids.length) {
+            return List.of();
+        }
+
+        int[][] nGrams = new int[ids.length - n + 1][];
+        int[] next = {0};
+        NGramGatherer.forEachNGram(n, ids, nGram -> nGrams[next[0]++] = nGram.clone());
+        return List.of(nGrams);
+    }
+
+    // Parallele Variante: Die Startpositionen der n-Gramme werden in Abschnitte geteilt, die
+    // unabhängig voneinander bearbeitet werden. Jeder Abschnitt liest n - 1 Tokens über sein Ende
+    // hinaus (Überlappung), sodass an den Schnittstellen kein n-Gramm fehlt oder doppelt entsteht.
+    // Jeder Abschnitt schreibt in seinen eigenen Bereich eines vorab angelegten Arrays,
+    // die Reihenfolge entspricht daher genau der von produceNGramsWithoutGatherer.
+    public static List<String> produceNGramsParallel(int n, List<String> tokens) {
+        // Randfallprüfung: Ungültige n-Größe.
+        if (n < 1 || n > tokens.size()) {
+            return List.of();
+        }
+
+        String[] words = tokens.toArray(String[]::new);
+        String[] nGrams = new String[words.length - n + 1];
+        forEachChunkParallel(nGrams.length, (from, to) -> {
+            // Ein StringBuilder pro Abschnitt, wiederverwendet für alle seine n-Gramme.
+            StringBuilder builder = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                builder.setLength(0);
+                builder.append(words[i]);
+                for (int j = i + 1; j < i + n; j++) {
+                    builder.append(' ').append(words[j]);
+                }
+                nGrams[i] = builder.toString();
+            }
+        });
+        return Collections.unmodifiableList(Arrays.asList(nGrams));
+    }
+
+    // Parallele ID-basierte Variante von produceNGramsWithoutGatherer.
+    public static List<int[]> produceNGramsParallel(int n, int[] ids) {
+        // Randfallprüfung: Ungültige n-Größe.
+        if (n < 1 || n > ids.length) {
+            return List.of();
+        }
+
+        int[][] nGrams = new int[ids.length - n + 1][];
+        forEachChunkParallel(nGrams.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                nGrams[i] = Arrays.copyOfRange(ids, i, i + n);
+            }
+        });
+        return Collections.unmodifiableList(Arrays.asList(nGrams));
+    }
+
+    // Parallele Variante von countNGrams: Jeder Abschnitt zählt in einen eigenen NGramCounter,
+    // die Teilzähler werden anschließend paarweise (ebenfalls parallel) aufsummiert.
+    public static NGramCounter countNGramsParallel(int n, int[] ids) {
+        int nGrams = Math.max(0, ids.length - n + 1);
+        int chunks = chunkCount(nGrams);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    NGramCounter counter = new NGramCounter(n, true);
+                    // Tokens [from, to + n - 1): Die n-Gramme mit Start in [from, to) samt Überlappung.
+                    counter.addAll(ids, chunkStart(chunk, chunks, nGrams),
+                            Math.min(ids.length, chunkStart(chunk + 1, chunks, nGrams) + n - 1));
+                    return counter;
+                })
+                .reduce((left, right) -> {
+                    left.addAll(right);
+                    return left;
+                })
+                .orElseGet(() -> new NGramCounter(n, true));
+    }
+
+    // Näherungsweise Zählung mit festem Speicher (Count-Min Sketch + Space-Saving) statt der
+    // exakten NGramCounter-Tabelle, die linear mit dem Korpus wächst. Die Abschnitte werden
+    // parallel gezählt und ihre Sketches anschließend vereinigt.
+    // param: epsilon, delta Fehlerschranke und Irrtumswahrscheinlichkeit (siehe CountMinSketch).
+    // param: heavyHitters Anzahl der verfolgten häufigsten n-Gramme (siehe SpaceSaving).
+    public static ApproximateNGramCounter countNGramsApproximate(
+            int n, int[] ids, double epsilon, double delta, int heavyHitters) {
+        int nGrams = Math.max(0, ids.length - n + 1);
+        int chunks = chunkCount(nGrams);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    ApproximateNGramCounter counter = new ApproximateNGramCounter(n, epsilon, delta, heavyHitters);
+                    counter.addAll(ids, chunkStart(chunk, chunks, nGrams),
+                            Math.min(ids.length, chunkStart(chunk + 1, chunks, nGrams) + n - 1));
+                    return counter;
+                })
+                .reduce((left, right) -> {
+                    left.merge(right);
+                    return left;
+                })
+                .orElseGet(() -> new ApproximateNGramCounter(n, epsilon, delta, heavyHitters));
+    }
+
+    // Stellt jedes n-Gramm als 64-Bit-Fingerabdruck dar, statt einen String zu erzeugen.
+    // return: Die Fingerabdrücke aller n-Gramme in Korpus-Reihenfolge (siehe NGramFingerprints).
+    public static long[] produceNGramFingerprints(int n, int[] ids) {
+        return NGramFingerprints.of(n, ids);
+    }
+
+    // Zählt die Häufigkeit jedes n-Gramms, statt alle n-Gramme als Liste zu erzeugen.
+    // Die ID-Tupel werden gespeichert, damit die Zählung kollisionssicher und dekodierbar ist.
+    public static NGramCounter countNGrams(int n, int[] ids) {
+        NGramCounter counter = new NGramCounter(n, true);
+        counter.addAll(ids);
+        return counter;
+    }
+
+    // String-Variante von countNGrams.
+    // return: Eine Map von n-Gramm-String (wie in produceNGramsWithoutGatherer) auf Häufigkeit.
+    public static Map<String, Long> countNGrams(int n, List<String> tokens) {
+        Vocabulary vocabulary = new Vocabulary();
+        return countNGrams(n, vocabulary.encode(tokens)).toMap(vocabulary);
+    }
+
+    // Zählt die n-Gramme aller Ordnungen minOrder..maxOrder in einem Durchlauf (siehe NGramTrie),
+    // statt countNGrams bzw. produceNGrams* einmal pro n aufzurufen. Die Abschnitte werden
+    // parallel in eigene Tries gezählt und anschließend zusammengeführt.
+    public static NGramTrie countNGramsMultiOrder(int minOrder, int maxOrder, int[] ids) {
+        int chunks = chunkCount(ids.length);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    NGramTrie trie = new NGramTrie(minOrder, maxOrder);
+                    trie.addStartingIn(ids, chunkStart(chunk, chunks, ids.length),
+                            chunkStart(chunk + 1, chunks, ids.length));
+                    return trie;
+                })
+                .reduce((left, right) -> {
+                    left.addAll(right);
+                    return left;
+                })
+                .orElseGet(() -> new NGramTrie(minOrder, maxOrder));
+    }
+
+    // String-Variante von countNGramsMultiOrder.
+    // return: Eine Map von n auf die Häufigkeiten der n-Gramme (wie countNGrams(n, tokens)).
+    public static Map<Integer, Map<String, Long>> countNGramsMultiOrder(
+            int minOrder, int maxOrder, List<String> tokens) {
+        Vocabulary vocabulary = new Vocabulary();
+        return countNGramsMultiOrder(minOrder, maxOrder, vocabulary.encode(tokens)).toMaps(vocabulary);
+    }
+
+    // Funktionales Interface für einen Abschnitt [from, to) von Positionen.
+    @FunctionalInterface
+    private interface ChunkAction {
+        void accept(int from, int to);
+    }
+
+    // Teilt die Positionen [0, size) in Abschnitte und bearbeitet diese parallel.
+    private static void forEachChunkParallel(int size, ChunkAction action) {
+        int chunks = chunkCount(size);
+        IntStream.range(0, chunks)
+                .parallel()
+                .forEach(chunk -> action.accept(chunkStart(chunk, chunks, size), chunkStart(chunk + 1, chunks, size)));
+    }
+
+    // Einige Abschnitte mehr als Kerne, damit ungleich schnelle Abschnitte ausgeglichen werden;
+    // sehr kleine Eingaben werden nicht aufgeteilt.
+    private static int chunkCount(int size) {
+        int minimumChunkSize = 16 * 1024;
+        int maximumChunks = 4 * ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(maximumChunks, size / minimumChunkSize));
+    }
+
+    // Beginn des Abschnitts chunk (gleichmäßig verteilt, der letzte endet genau bei size).
+    private static int chunkStart(int chunk, int chunks, int size) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
     public static Map<String, Map<String, Long>> performCooccurrenceAnalysisWithoutGatherer(
             int window, List<String> tokens) {
 
@@ -92,6 +296,20 @@ public class Main {
                 ));
     }
 
+    // ID-basierte Variante: Zählt Kookkurrenzen über Token-IDs in eine primitive CooccurrenceMatrix.
+    // Das Ergebnis lässt sich mit CooccurrenceMatrix.toMap(vocabulary) in die Wort-Form überführen.
+    public static CooccurrenceMatrix performCooccurrenceAnalysisWithoutGatherer(int window, int[] ids) {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > ids.length) {
+            return matrix;
+        }
+
+        matrix.addWindowCounts(ids, window);
+        return matrix;
+    }
+
     // Führt die Kookkurrenz-Analyse unter Verwendung eines benutzerdefinierten Stream Gatherers durch.
     public static Map<String, Map<String, Long>> performCooccurrenceAnalysisWithGatherer(
             int window, List<String> tokens) {
@@ -101,26 +319,169 @@ public class Main {
             return Map.of();
         }
 
-        // Der Gatherer kapselt die gesamte globale Analyse und gibt nur das Endergebnis (die Map) aus.
+        // Der Gatherer verarbeitet die Tokens des Streams einzeln und gibt nur das Endergebnis (die Map) aus.
         // findFirst: Extrahiert das einzelne Ergebnis-Element aus dem Stream.
         return tokens.stream()
-                .gather(new CooccurrenceAnalysisGatherer(tokens, window))
+                .gather(new CooccurrenceAnalysisGatherer(window))
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("Gatherer sollte ein Ergebnis liefern."));
     }
 
-    public static Map<String, Long> findTopKCooccurrences(String centerWord, int k, Map<String, Map<String, Long>> cooccurrenceMap) {
-        // Überprüft, ob das Schlüsselwort (centerWord) in der Kookkurrenz-Karte vorhanden ist.
-        if (!cooccurrenceMap.containsKey(centerWord.toLowerCase())) {
+    // Parallele Variante: Der Combiner des Gatherers fügt die Teilergebnisse der Abschnitte zusammen.
+    public static Map<String, Map<String, Long>> performCooccurrenceAnalysisWithGathererParallel(
+            int window, List<String> tokens) {
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > tokens.size()) {
             return Map.of();
         }
 
+        return tokens.parallelStream()
+                .gather(new CooccurrenceAnalysisGatherer(window))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Gatherer sollte ein Ergebnis liefern."));
+    }
+
+    // ID-basierte Variante von performCooccurrenceAnalysisWithGatherer.
+    public static CooccurrenceMatrix performCooccurrenceAnalysisWithGatherer(int window, int[] ids) {
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > ids.length) {
+            return new CooccurrenceMatrix();
+        }
+
+        return Arrays.stream(ids)
+                .boxed()
+                .gather(CooccurrenceAnalysisGatherer.ofIds(window))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Gatherer sollte ein Ergebnis liefern."));
+    }
+
+    // Parallele ID-basierte Variante.
+    public static CooccurrenceMatrix performCooccurrenceAnalysisWithGathererParallel(int window, int[] ids) {
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > ids.length) {
+            return new CooccurrenceMatrix();
+        }
+
+        return Arrays.stream(ids)
+                .parallel()
+                .boxed()
+                .gather(CooccurrenceAnalysisGatherer.ofIds(window))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Gatherer sollte ein Ergebnis liefern."));
+    }
+
+    // Näherungsweise Kookkurrenz-Analyse mit festem Speicher (siehe ApproximateCooccurrenceCounter).
+    // Die Zentrumspositionen werden parallel in Abschnitten gezählt und die Sketches vereinigt.
+    // param: neighborsPerCenter Anzahl der verfolgten Nachbarn pro Wort für topK (0 = keine).
+    // param: maxCenters Anzahl der häufigsten Wörter, deren Nachbarn verfolgt werden.
+    public static ApproximateCooccurrenceCounter performCooccurrenceAnalysisApproximate(
+            int window, int[] ids, double epsilon, double delta, int heavyHitters,
+            int neighborsPerCenter, int maxCenters) {
+        int chunks = chunkCount(ids.length);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    ApproximateCooccurrenceCounter counter = new ApproximateCooccurrenceCounter(
+                            window, epsilon, delta, heavyHitters, neighborsPerCenter, maxCenters);
+                    counter.addWindowCounts(ids, chunkStart(chunk, chunks, ids.length),
+                            chunkStart(chunk + 1, chunks, ids.length));
+                    return counter;
+                })
+                .reduce((left, right) -> {
+                    left.merge(right);
+                    return left;
+                })
+                .orElseGet(() -> new ApproximateCooccurrenceCounter(
+                        window, epsilon, delta, heavyHitters, neighborsPerCenter, maxCenters));
+    }
+
+    // Exakte Kookkurrenz-Analyse für Korpora, deren Paare nicht in den Speicher passen:
+    // Die Datei wird per StreamingTokenizer gelesen, jedes Paar gepackt ((center << 32) | neighbor)
+    // an den ExternalAggregator übergeben, der bei vollem Puffer sortierte Läufe auf die Platte schreibt.
+    // Im Speicher liegen nur das Vocabulary, die letzten window Token-IDs und der Puffer.
+    // Ergebnis z.B. mit JsonResultWriter.writeCooccurrences(path, format, aggregator, vocabulary) schreiben.
+    public static void performCooccurrenceAnalysisExternal(
+            String filePath, int window, Vocabulary vocabulary, ExternalAggregator aggregator) throws IOException {
+        if (window < 1) {
+            return;
+        }
+
+        // Ringpuffer der letzten window IDs: Jedes neue Token bildet mit ihnen Paare in beide Richtungen.
+        int[] recent = new int[window];
+        long[] position = {0};
+        try (StreamingTokenizer tokenizer = StreamingTokenizer.open(Path.of(filePath))) {
+            tokenizer.forEachTokenId(vocabulary, id -> {
+                try {
+                    for (long i = Math.max(0, position[0] - window); i < position[0]; i++) {
+                        int previous = recent[(int) (i % window)];
+                        aggregator.add(((long) previous << 32) | id, 1L);
+                        aggregator.add(((long) id << 32) | previous, 1L);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                recent[(int) (position[0]++ % window)] = id;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Variante, die in eine Tabelle außerhalb des Heaps zählt (siehe OffHeapCooccurrenceTable),
+    // damit auch sehr viele Paare keine langen GC-Pausen verursachen. Parallel; die Tabelle wird
+    // vom Aufrufer angelegt (z.B. OffHeapCooccurrenceTable.allocate oder open) und geschlossen.
+    // Jeder Abschnitt zählt die Zentrumswörter seiner Positionen direkt aus dem Array in die
+    // gemeinsame Tabelle; anders als bei einem Stream<Integer> entsteht pro Token kein Objekt.
+    // Die Tabelle wächst nicht: Bietet sie nicht Platz für OffHeapCooccurrenceTable.maxPairs(ids, window)
+    // weitere Paare, wirft die Methode vor dem Zählen eine IllegalStateException und die Tabelle bleibt
+    // unverändert. Eine passende Tabelle liefert z.B. allocate(maxPairs(ids, window)).
+    public static OffHeapCooccurrenceTable performCooccurrenceAnalysisOffHeap(
+            int window, int[] ids, OffHeapCooccurrenceTable table) {
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > ids.length) {
+            return table;
+        }
+
+        table.ensureRoomFor(OffHeapCooccurrenceTable.maxPairs(ids, window));
+        forEachChunkParallel(ids.length, (from, to) -> table.addWindowCounts(ids, from, to, window));
+        return table;
+    }
+
+    // Stream-Variante von performCooccurrenceAnalysisOffHeap mit CooccurrenceAnalysisGatherer.ofIds(window, table).
+    // Das Boxing jeder ID zu Integer erzeugt Objekte auf dem Heap; für große Korpora ist die
+    // Array-Variante oben vorzuziehen. Der Platz wird wie dort vor dem Zählen geprüft.
+    public static OffHeapCooccurrenceTable performCooccurrenceAnalysisOffHeapWithGatherer(
+            int window, int[] ids, OffHeapCooccurrenceTable table) {
+
+        // Randfallprüfung: Ungültige window-Größe.
+        if (window < 1 || window > ids.length) {
+            return table;
+        }
+
+        table.ensureRoomFor(OffHeapCooccurrenceTable.maxPairs(ids, window));
+        return Arrays.stream(ids)
+                .parallel()
+                .boxed()
+                .gather(CooccurrenceAnalysisGatherer.ofIds(window, table))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Gatherer sollte ein Ergebnis liefern."));
+    }
+
+    public static Map<String, Long> findTopKCooccurrences(String centerWord, int k, Map<String, Map<String, Long>> cooccurrenceMap) {
+        // Überprüft, ob das Schlüsselwort (centerWord) in der Kookkurrenz-Karte vorhanden ist.
+        // Der Schlüssel wird nur einmal kleingeschrieben und nur einmal nachgeschlagen.
         Map<String, Long> cooccurrences = cooccurrenceMap.get(centerWord.toLowerCase());
+        if (cooccurrences == null) {
+            return Map.of();
+        }
 
         return cooccurrences.entrySet().stream()
-                // Absteigend nach Häufigkeit (Wert) sortieren
-                .sorted(Collections.reverseOrder(comparingByValue()))
-                .limit(k) // Nur die Top K behalten
+                // Top K per Min-Heap der Größe k auswählen, absteigend nach Häufigkeit (Wert)
+                .gather(new TopKGatherer<Map.Entry<String, Long>>(k, comparingByValue()))
                 // Sammle in einer Map, die die Sortierreihenfolge beibehält
                 .collect(toMap(
                         Map.Entry::getKey,
@@ -129,21 +490,70 @@ public class Main {
                         LinkedHashMap::new));
     }
 
+    // Berechnet die k häufigsten Kookkurrenzen für alle Zentrumswörter in einem parallelen Durchlauf.
+    // Abfragen erfolgen danach über TopKIndex.topK(word, k, vocabulary) ohne erneutes Sortieren.
+    public static TopKIndex precomputeTopKCooccurrences(int k, CooccurrenceMatrix cooccurrences) {
+        return TopKIndex.build(cooccurrences, k);
+    }
+
+    // Wortvektoren (z.B. PPMI-gewichtet) für Ähnlichkeitsabfragen über das ganze Vokabular.
+    // Abfragen danach über WordVectors.mostSimilar(word, k, vocabulary).
+    public static WordVectors buildWordVectors(int window, int[] ids, WordVectors.Weighting weighting) {
+        return WordVectors.build(ids, window, weighting);
+    }
+
+    // Liefert die Skip-Gram-Paare des Korpus stapelweise an einen Trainer (z.B. für word2vec).
+    // Der Stapel wird wiederverwendet; der Trainer muss ihn vor der Rückkehr verarbeiten oder kopieren.
+    // param: dynamicWindow Fenstergröße pro Zentrum zufällig aus 1..window (wie in word2vec).
+    // param: sample Schwellwert des Subsamplings häufiger Wörter (0 = aus).
+    // param: seed Startwert des Zufallsgenerators; gleiche Werte liefern dieselben Paare.
+    // return: Anzahl der ausgegebenen Paare.
+    public static long produceSkipGramBatches(int window, int batchSize, boolean dynamicWindow, double sample,
+                                              long seed, int[] ids, Consumer<SkipGramBatch> trainer) {
+        long[] pairs = {0};
+        // Die Häufigkeiten werden nur für das Subsampling gebraucht.
+        long[] frequencies = sample > 0 ? SkipGramGatherer.frequencies(ids) : null;
+        SkipGramGatherer gatherer = new SkipGramGatherer(window, batchSize, dynamicWindow, sample, frequencies, seed);
+        gatherer.forEachBatch(ids, batch -> {
+            trainer.accept(batch);
+            pairs[0] += batch.size();
+        });
+        return pairs[0];
+    }
+
     public static List<String> produceTokensFromText(String text) {
         // 1. Text in Kleinbuchstaben umwandeln
         text = text.toLowerCase();
 
-        // 2. Explizite Definition der Wort-Zeichenklasse
-        // [a-z] = Basis-Alphabet, [äöüß] = Deutsche Sonderzeichen
-        Pattern wordPattern = Pattern.compile("[a-zäöüß]+");
-
-        // 3. Alle passenden Sequenzen (Wörter) suchen und als Tokens extrahieren
-        return wordPattern.matcher(text)
+        // 2. Alle passenden Sequenzen (Wörter) suchen und als Tokens extrahieren
+        return WORD_PATTERN.matcher(text)
                 .results() // Stream der gefundenen Matches
                 .map(match -> match.group())
                 .toList();
     }
 
+    // Tokenisiert eine Textdatei, ohne sie vollständig als String einzulesen (siehe StreamingTokenizer).
+    // Liefert dieselben Tokens wie produceTokensFromText(readTextFileAndSetToString(filePath)).
+    public static List<String> produceTokensFromFile(String filePath) throws IOException {
+        try (Stream<String> tokens = StreamingTokenizer.tokens(Path.of(filePath))) {
+            return tokens.toList();
+        }
+    }
+
+    // Kodiert eine Textdatei direkt in Token-IDs, ohne Strings für bekannte Wörter zu erzeugen.
+    public static int[] produceTokenIdsFromFile(String filePath, Vocabulary vocabulary) throws IOException {
+        try (StreamingTokenizer tokenizer = StreamingTokenizer.open(Path.of(filePath))) {
+            return tokenizer.tokenIds(vocabulary);
+        }
+    }
+
+    // Zählt Kookkurrenzen und n-Gramme über alle Dateien eines Verzeichnisses (siehe CorpusIngestion).
+    // Nicht lesbare Dateien werden nicht übersprungen, sondern in Result.failures gemeldet.
+    public static CorpusIngestion.Result ingestCorpus(String directory, int window, int n)
+            throws IOException, InterruptedException {
+        return new CorpusIngestion(window, n).ingest(Path.of(directory));
+    }
+
 //    public static void measureTimeToExecute(String operationName, Runnable operation) {
 //        long startTime = System.nanoTime();
 //        operation.run();
@@ -155,6 +565,9 @@ public class Main {
 //                operationName, executionTime);
 //    }
 
+    // Einfache Zeitmessung für einen schnellen Überblick. Für belastbare Zahlen
+    // (Streuung, Allokationen, JSON-Ergebnisse) siehe die JMH-Benchmarks: mvn -Pjmh package.
+    // Messwerte einzelner Stufen einer Pipeline liefert InstrumentedGatherer.
     public static void measureTimeToExecute(
             String operationName, Runnable operation, int warmupRuns, int measureRuns) {
 
@@ -186,18 +599,11 @@ public class Main {
 
     // Liest den gesamten Inhalt einer Textdatei in einen String.
     // param: filePath Pfad zur zu lesenden Datei (z.B. "corpus.txt").
-    // return: Der Inhalt der Datei als String, oder ein leerer String im Fehlerfall.
-    public static String readTextFileAndSetToString(String filePath) {
-        Path path = Paths.get(filePath);
-        try {
-            // Geben den Inhalt der Textdatei zurück
-            return Files.readString(path, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            // Wenn die Datei nicht gefunden wird oder ein I/O-Fehler auftritt,
-            // wird der Fehler behandelt und ein leere String zurückgegeben
-            System.err.println("Fehler beim Lesen der Datei " + filePath + ": " + e.getMessage());
-            return "";
-        }
+    // return: Der Inhalt der Datei als String.
+    // throws: IOException, wenn die Datei fehlt oder nicht gelesen werden kann; ein leerer
+    //         String wäre von einer leeren Datei nicht zu unterscheiden.
+    public static String readTextFileAndSetToString(String filePath) throws IOException {
+        return Files.readString(Paths.get(filePath), StandardCharsets.UTF_8);
     }
 
     public static void writeToJsonFile(Object data, String fileName) throws IOException {
@@ -205,8 +611,11 @@ public class Main {
                 .setPrettyPrinting()
                 .create();
 
-        String json = gson.toJson(data);
-        Files.writeString(Path.of(fileName), json);
+        // Direkt in die Datei serialisieren, ohne den ganzen JSON-String im Speicher aufzubauen.
+        // Für zeilenweise Ausgabe (NDJSON) siehe JsonResultWriter.
+        try (Writer writer = Files.newBufferedWriter(Path.of(fileName))) {
+            gson.toJson(data, writer);
+        }
     }
 
 //    public static void main(String[] args) {
@@ -251,7 +660,7 @@ public class Main {
 //    }
 
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         String text = readTextFileAndSetToString(
                 "src/data/Jules_Verne_Zwanzigtausend_Meilen_unter_dem_Meer.txt");
         List<String> tokens = produceTokensFromText(text);
@@ -0,0 +1,288 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Zählt n-Gramm-Häufigkeiten über 64-Bit-Fingerabdrücke (siehe NGramFingerprints),
+// statt jedes n-Gramm als String zu erzeugen und in einer Liste zu sammeln.
+// Die Einträge liegen in primitiven Arrays; eine Hash-Tabelle mit offener Adressierung
+// verweist vom Fingerabdruck auf den Eintrag.
+//
+// Mit storeTuples = true wird zu jedem unterschiedlichen n-Gramm einmal das ID-Tupel
+// gespeichert. Dann werden Einträge über Fingerabdruck und Tupel verglichen (kollisionssicher)
+// und lassen sich mit einem Vocabulary wieder in Wörter dekodieren.
+public class NGramCounter {
+    private static final int FREE = -1;
+
+    private final int n;
+    private final boolean storeTuples;
+
+    // Hash-Tabelle: Jeder Platz enthält einen Eintragsindex oder FREE.
+    private int[] slots = newSlots(64);
+
+    // Einträge in Einfügereihenfolge.
+    private long[] fingerprints = new long[32];
+    private long[] counts = new long[32];
+    private int[] tuples;
+    private int size;
+    private long totalCount;
+
+    public NGramCounter(int n, boolean storeTuples) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n muss mindestens 1 sein: " + n);
+        }
+        this.n = n;
+        this.storeTuples = storeTuples;
+        this.tuples = storeTuples ? new int[32 * n] : null;
+    }
+
+    // Funktionales Interface für die Iteration über Fingerabdrücke.
+    @FunctionalInterface
+    public interface FingerprintConsumer {
+        void accept(long fingerprint, long count);
+    }
+
+    // Funktionales Interface für die Iteration über ID-Tupel.
+    // Das Array wird wiederverwendet und ist nur während des Aufrufs gültig.
+    @FunctionalInterface
+    public interface NGramConsumer {
+        void accept(int[] nGram, long count);
+    }
+
+    // Zählt alle n-Gramme eines ID-kodierten Korpus.
+    // Wiederholte Aufrufe (ein Dokument pro Aufruf) addieren zu den bisherigen Zählern;
+    // n-Gramme reichen dabei nie über die Grenze zwischen zwei Dokumenten.
+    public void addAll(int[] ids) {
+        addAll(ids, 0, ids.length);
+    }
+
+    // Zählt alle n-Gramme, die vollständig in ids[from, to) liegen.
+    public void addAll(int[] ids, int from, int to) {
+        int[] position = {from};
+        NGramFingerprints.forEach(n, ids, from, to, fingerprint -> add(fingerprint, ids, position[0]++, 1L));
+    }
+
+    // Nimmt die n-Gramme eines zuvor mit addAll(int[]) gezählten Dokuments wieder heraus.
+    // Die Kosten hängen nur von der Länge des Dokuments ab; n-Gramme, deren Zähler 0 erreicht,
+    // werden entfernt (danach gilt die Einfügereihenfolge von forEach nicht mehr).
+    // Enthält der Zähler die n-Gramme des Dokuments nicht, bleibt er unverändert und es wird
+    // eine IllegalStateException geworfen.
+    public void removeAll(int[] ids) {
+        long[] documentFingerprints = NGramFingerprints.of(n, ids);
+        for (int position = 0; position < documentFingerprints.length; position++) {
+            if (!decrement(documentFingerprints[position], ids, position)) {
+                // Bereits entfernte n-Gramme wieder hinzuzählen.
+                for (int restored = 0; restored < position; restored++) {
+                    add(documentFingerprints[restored], ids, restored, 1L);
+                }
+                throw new IllegalStateException("Das n-Gramm an Position " + position
+                        + " ist nicht im Zähler enthalten; wurde das Dokument hinzugefügt?");
+            }
+        }
+    }
+
+    // Addiert alle Zähler eines anderen Zählers (mit demselben n und Vocabulary).
+    public void addAll(NGramCounter other) {
+        if (other.n != n) {
+            throw new IllegalArgumentException("Unterschiedliche n: " + n + " und " + other.n);
+        }
+        if (storeTuples && !other.storeTuples) {
+            throw new IllegalArgumentException("Ohne gespeicherte Tupel kann nicht kollisionssicher gezählt werden.");
+        }
+
+        for (int entry = 0; entry < other.size; entry++) {
+            add(other.fingerprints[entry], other.tuples, entry * n, other.counts[entry]);
+        }
+    }
+
+    // Addiert alle Zähler eines Zählers, dessen IDs aus einem anderen Vocabulary stammen.
+    // Die Fingerabdrücke hängen von den IDs ab und werden deshalb aus den übersetzten Tupeln neu berechnet.
+    // param: idMapping Übersetzt IDs des anderen Zählers in IDs dieses Zählers (siehe Vocabulary.mergeFrom).
+    public void addAll(NGramCounter other, int[] idMapping) {
+        if (other.n != n) {
+            throw new IllegalArgumentException("Unterschiedliche n: " + n + " und " + other.n);
+        }
+        other.requireTuples();
+
+        int[] nGram = new int[n];
+        for (int entry = 0; entry < other.size; entry++) {
+            for (int i = 0; i < n; i++) {
+                nGram[i] = idMapping[other.tuples[entry * n + i]];
+            }
+            add(NGramFingerprints.fingerprint(nGram, 0, n), nGram, 0, other.counts[entry]);
+        }
+    }
+
+    // Liefert die Häufigkeit des n-Gramms (z.B. count(vocabulary.getId("der"), vocabulary.getId("see"))).
+    public long count(int... nGram) {
+        if (nGram.length != n) {
+            throw new IllegalArgumentException("Erwartet " + n + " IDs, erhalten: " + nGram.length);
+        }
+        int slot = findSlot(NGramFingerprints.fingerprint(nGram, 0, n), nGram, 0);
+        return slots[slot] != FREE ? counts[slots[slot]] : 0L;
+    }
+
+    // Liefert die Häufigkeit zu einem Fingerabdruck (ohne Tupelvergleich).
+    public long countOfFingerprint(long fingerprint) {
+        int slot = findSlot(fingerprint, null, 0);
+        return slots[slot] != FREE ? counts[slots[slot]] : 0L;
+    }
+
+    public int n() {
+        return n;
+    }
+
+    // Anzahl der unterschiedlichen n-Gramme.
+    public int distinctCount() {
+        return size;
+    }
+
+    // Anzahl aller gezählten n-Gramme.
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public void forEach(FingerprintConsumer consumer) {
+        for (int entry = 0; entry < size; entry++) {
+            consumer.accept(fingerprints[entry], counts[entry]);
+        }
+    }
+
+    // Übergibt jedes n-Gramm als ID-Tupel in der Reihenfolge des ersten Auftretens
+    // (sofern nichts mit removeAll entfernt wurde).
+    public void forEachNGram(NGramConsumer consumer) {
+        requireTuples();
+        int[] nGram = new int[n];
+        for (int entry = 0; entry < size; entry++) {
+            System.arraycopy(tuples, entry * n, nGram, 0, n);
+            consumer.accept(nGram, counts[entry]);
+        }
+    }
+
+    // Wandelt die Zähler in eine Map von n-Gramm-String (wie String.join(" ", ...)) auf Häufigkeit um.
+    public Map<String, Long> toMap(Vocabulary vocabulary) {
+        Map<String, Long> result = new HashMap<>();
+        forEachNGram((nGram, count) -> result.put(vocabulary.decodeNGram(nGram), count));
+        return result;
+    }
+
+    // Erhöht den Zähler des n-Gramms source[offset, offset + n) um delta.
+    private void add(long fingerprint, int[] source, int offset, long delta) {
+        totalCount += delta;
+
+        int slot = findSlot(fingerprint, source, offset);
+        if (slots[slot] != FREE) {
+            counts[slots[slot]] += delta;
+            return;
+        }
+
+        if (size == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, size << 1);
+            counts = Arrays.copyOf(counts, size << 1);
+            if (storeTuples) {
+                tuples = Arrays.copyOf(tuples, (size << 1) * n);
+            }
+        }
+
+        fingerprints[size] = fingerprint;
+        counts[size] = delta;
+        if (storeTuples) {
+            System.arraycopy(source, offset, tuples, size * n, n);
+        }
+        slots[slot] = size++;
+
+        // Füllgrad von höchstens 50 %, damit die Sondierungsketten kurz bleiben.
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    // Verringert den Zähler des n-Gramms source[offset, offset + n) um 1 und entfernt es bei 0.
+    // return: false, wenn das n-Gramm nicht gezählt war.
+    private boolean decrement(long fingerprint, int[] source, int offset) {
+        int slot = findSlot(fingerprint, source, offset);
+        int entry = slots[slot];
+        if (entry == FREE) {
+            return false;
+        }
+
+        totalCount--;
+        if (--counts[entry] == 0) {
+            removeSlot(slot);
+            moveLastEntryTo(entry);
+        }
+        return true;
+    }
+
+    // Gibt einen Platz der Hash-Tabelle frei (Rückwärtsverschiebung, siehe IntLongHashMap.remove).
+    private void removeSlot(int slot) {
+        int mask = slots.length - 1;
+        int gap = slot;
+        int next = slot;
+        while (slots[next = (next + 1) & mask] != FREE) {
+            int home = (int) fingerprints[slots[next]] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                slots[gap] = slots[next];
+                gap = next;
+            }
+        }
+        slots[gap] = FREE;
+    }
+
+    // Schließt die Lücke eines entfernten Eintrags, indem der letzte Eintrag dorthin wandert.
+    private void moveLastEntryTo(int entry) {
+        int last = --size;
+        if (entry == last) {
+            return;
+        }
+
+        slots[findSlot(fingerprints[last], tuples, last * n)] = entry;
+        fingerprints[entry] = fingerprints[last];
+        counts[entry] = counts[last];
+        if (storeTuples) {
+            System.arraycopy(tuples, last * n, tuples, entry * n, n);
+        }
+    }
+
+    // Sucht den Platz des n-Gramms oder den ersten freien Platz seiner Sondierungskette.
+    // Ist source null oder werden keine Tupel gespeichert, entscheidet allein der Fingerabdruck.
+    private int findSlot(long fingerprint, int[] source, int offset) {
+        int mask = slots.length - 1;
+        int slot = (int) fingerprint & mask;
+        int entry;
+        while ((entry = slots[slot]) != FREE
+                && (fingerprints[entry] != fingerprint || !sameTuple(entry, source, offset))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean sameTuple(int entry, int[] source, int offset) {
+        return !storeTuples || source == null
+                || Arrays.equals(tuples, entry * n, entry * n + n, source, offset, offset + n);
+    }
+
+    private void rehash() {
+        slots = newSlots(slots.length << 1);
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            // Einträge sind eindeutig, daher genügt die Suche nach einem freien Platz.
+            int slot = (int) fingerprints[entry] & mask;
+            while (slots[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry;
+        }
+    }
+
+    private void requireTuples() {
+        if (!storeTuples) {
+            throw new IllegalStateException("Die n-Gramme wurden ohne ID-Tupel gezählt (storeTuples = false).");
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, FREE);
+        return slots;
+    }
+}
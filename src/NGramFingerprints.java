@@ -0,0 +1,118 @@
+import java.util.function.LongConsumer;
+
+// 64-Bit-Fingerabdrücke von n-Grammen über Token-IDs (siehe Vocabulary).
+// Ein n-Gramm wird als Polynom über seine IDs gehasht (rollender Hash), sodass der
+// Fingerabdruck des nächsten Fensters in O(1) aus dem vorherigen berechnet wird,
+// statt für jedes n-Gramm einen String zu erzeugen.
+// Unterschiedliche n-Gramme können denselben Fingerabdruck haben. Der Hash ist ein festes
+// Polynom modulo 2^64 ohne geheimen Schlüssel, also kein zufälliges Orakel: Kollisionen lassen
+// sich gezielt konstruieren, und bestimmte strukturierte Eingaben kollidieren häufiger als bei
+// einem idealen 64-Bit-Hash (dort wären es bei m verschiedenen n-Grammen etwa m^2 / 2^65).
+// Auf natürlichem Text sind Kollisionen selten, aber nicht ausgeschlossen;
+// wer exakte Ergebnisse braucht, nutzt NGramCounter mit storeTuples = true.
+public final class NGramFingerprints {
+    // Ungerade Basis des Polynoms (modulo 2^64).
+    private static final long BASE = 0x9E3779B97F4A7C15L;
+
+    private NGramFingerprints() {
+    }
+
+    // Berechnet den Fingerabdruck des n-Gramms ids[from, from + n).
+    public static long fingerprint(int[] ids, int from, int n) {
+        long hash = 0;
+        for (int i = from; i < from + n; i++) {
+            hash = hash * BASE + (ids[i] + 1L);
+        }
+        return finish(hash);
+    }
+
+    // Übergibt die Fingerabdrücke aller n-Gramme in Korpus-Reihenfolge.
+    public static void forEach(int n, int[] ids, LongConsumer action) {
+        forEach(n, ids, 0, ids.length, action);
+    }
+
+    // Übergibt die Fingerabdrücke aller n-Gramme, die vollständig in ids[from, to) liegen.
+    public static void forEach(int n, int[] ids, int from, int to, LongConsumer action) {
+        if (n < 1 || n > to - from) {
+            return;
+        }
+
+        // BASE^n, um das älteste Token aus dem rollenden Hash zu entfernen.
+        long highestPower = power(n);
+        long hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = hash * BASE + (ids[i] + 1L);
+            if (i >= from + n) {
+                hash -= highestPower * (ids[i - n] + 1L);
+            }
+            if (i >= from + n - 1) {
+                action.accept(finish(hash));
+            }
+        }
+    }
+
+    // Liefert die Fingerabdrücke aller n-Gramme als Array (statt einer Liste von Strings).
+    public static long[] of(int n, int[] ids) {
+        if (n < 1 || n > ids.length) {
+            return new long[0];
+        }
+
+        long[] fingerprints = new long[ids.length - n + 1];
+        int[] index = {0};
+        forEach(n, ids, fingerprint -> fingerprints[index[0]++] = fingerprint);
+        return fingerprints;
+    }
+
+    // Rollender Fingerabdruck über die letzten n IDs eines Streams (Ringpuffer),
+    // für Quellen, die nicht als Array vorliegen (siehe NGramGatherer.fingerprintsOfIds).
+    public static final class Rolling {
+        private final int[] window;
+        private final long highestPower;
+        private long hash;
+        private long count;
+
+        public Rolling(int n) {
+            if (n < 1) {
+                throw new IllegalArgumentException("n muss mindestens 1 sein: " + n);
+            }
+            this.window = new int[n];
+            this.highestPower = power(n);
+        }
+
+        // Nimmt die nächste ID auf und entfernt dabei die älteste aus dem Hash.
+        // return: true, sobald n IDs im Fenster liegen und fingerprint() gültig ist.
+        public boolean accept(int id) {
+            int slot = (int) (count % window.length);
+            hash = hash * BASE + (id + 1L);
+            if (count >= window.length) {
+                hash -= highestPower * (window[slot] + 1L);
+            }
+            window[slot] = id;
+            return ++count >= window.length;
+        }
+
+        // Fingerabdruck der letzten n IDs (gleicher Wert wie fingerprint(ids, from, n)).
+        public long fingerprint() {
+            return finish(hash);
+        }
+    }
+
+    private static long power(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= BASE;
+        }
+        return result;
+    }
+
+    // Durchmischt die Bits des Polynoms (Finalizer von MurmurHash3), damit auch
+    // die niedrigen Bits für Hash-Tabellen gut verteilt sind.
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
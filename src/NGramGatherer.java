@@ -0,0 +1,133 @@
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+// Erzeugt n-Gramme aus einem Token-Stream, ohne wie Gatherers.windowSliding(n) für jedes
+// Fenster eine neue Liste anzulegen. Der Zustand ist ein Ringpuffer der letzten n Tokens;
+// jedes n-Gramm wird in einem wiederverwendeten StringBuilder zusammengesetzt,
+// sodass pro n-Gramm nur der Ergebnis-String entsteht.
+// Liefert dieselben n-Gramme wie produceNGramsWithoutGatherer (Wörter mit Leerzeichen verbunden).
+// Der Gatherer arbeitet sequenziell (wie Gatherers.windowSliding); für parallele Verarbeitung
+// siehe Main.produceNGramsParallel.
+//
+// Beispiel: tokens.stream().gather(new NGramGatherer(3)).toList()
+public class NGramGatherer implements Gatherer<String, NGramGatherer.State, String> {
+    private final int n;
+
+    // param: n Die Größe der zu erzeugenden n-Gramme.
+    public NGramGatherer(int n) {
+        requirePositive(n);
+        this.n = n;
+    }
+
+    // Ringpuffer der letzten n Tokens und wiederverwendeter Puffer für das Ergebnis.
+    public static final class State {
+        private final String[] window;
+        private final StringBuilder builder = new StringBuilder();
+        // Anzahl der bisher gelesenen Tokens.
+        private long count;
+
+        private State(int n) {
+            this.window = new String[n];
+        }
+    }
+
+    // Variante für ID-kodierte Korpora: gibt jedes n-Gramm als int[] von Token-IDs aus
+    // (gleiche Reihenfolge wie Main.produceNGramsWithoutGatherer(n, ids)). Wie bei forEachNGram ist
+    // das Array ein wiederverwendeter Puffer und nur bis zum nächsten Element gültig; wer die
+    // n-Gramme sammelt, kopiert sie (z.B. .map(int[]::clone)). So entsteht pro n-Gramm kein Objekt.
+    // Die Eingabe ist allerdings ein Stream<Integer>: Jede ID wird geboxt (außerhalb von -128..127
+    // ein Objekt pro Token). Liegt das Korpus als int[] vor, vermeiden forEachNGram(n, ids, ...)
+    // und NGramFingerprints.forEach(n, ids, ...) das Boxing.
+    public static Gatherer<Integer, ?, int[]> ofIds(int n) {
+        requirePositive(n);
+        return Gatherer.ofSequential(
+                () -> new IntWindow(n),
+                Integrator.ofGreedy((window, id, downstream) ->
+                        !window.accept(id) || downstream.push(window.nGram())));
+    }
+
+    // Variante für ID-kodierte Korpora, die nur die 64-Bit-Fingerabdrücke der n-Gramme ausgibt
+    // (siehe NGramFingerprints). Der Fingerabdruck wird rollend berechnet, ohne Arrays anzulegen.
+    // Ein- und Ausgabe sind geboxt (Integer bzw. Long); für ein int[] ohne Boxing siehe
+    // NGramFingerprints.forEach(n, ids, action).
+    public static Gatherer<Integer, ?, Long> fingerprintsOfIds(int n) {
+        requirePositive(n);
+        return Gatherer.ofSequential(
+                () -> new NGramFingerprints.Rolling(n),
+                Integrator.ofGreedy((rolling, id, downstream) ->
+                        !rolling.accept(id) || downstream.push(rolling.fingerprint())));
+    }
+
+    // Übergibt alle n-Gramme eines ID-Arrays ohne Stream und ohne Boxing (Reihenfolge des Korpus).
+    // Das Array wird wiederverwendet und ist nur während des Aufrufs gültig (Kopie mit clone()).
+    public static void forEachNGram(int n, int[] ids, Consumer<int[]> action) {
+        requirePositive(n);
+        int[] nGram = new int[n];
+        for (int start = 0; start + n <= ids.length; start++) {
+            System.arraycopy(ids, start, nGram, 0, n);
+            action.accept(nGram);
+        }
+    }
+
+    @Override
+    public Supplier<State> initializer() {
+        return () -> new State(n);
+    }
+
+    // Legt jedes Token in den Ringpuffer und gibt ab dem n-ten Token bei jedem Schritt ein n-Gramm aus.
+    @Override
+    public Integrator<State, String, String> integrator() {
+        // Greedy: Der Gatherer selbst bricht nie ab, leitet aber ein Abbrechen des Downstreams weiter.
+        return Integrator.ofGreedy((state, token, downstream) -> {
+            state.window[(int) (state.count++ % n)] = token;
+            if (state.count < n) {
+                return true;
+            }
+
+            // Das älteste Token liegt direkt hinter dem zuletzt geschriebenen Platz.
+            StringBuilder builder = state.builder;
+            builder.setLength(0);
+            int oldest = (int) (state.count % n);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    builder.append(' ');
+                }
+                builder.append(state.window[(oldest + i) % n]);
+            }
+            return downstream.push(builder.toString());
+        });
+    }
+
+    // Ringpuffer der letzten n Token-IDs und wiederverwendeter Ausgabepuffer.
+    private static final class IntWindow {
+        private final int[] ids;
+        private final int[] nGram;
+        private long count;
+
+        private IntWindow(int n) {
+            this.ids = new int[n];
+            this.nGram = new int[n];
+        }
+
+        // return: true, sobald n IDs im Puffer liegen.
+        private boolean accept(int id) {
+            ids[(int) (count++ % ids.length)] = id;
+            return count >= ids.length;
+        }
+
+        // Kopiert das aktuelle Fenster in Token-Reihenfolge in den Ausgabepuffer.
+        private int[] nGram() {
+            int oldest = (int) (count % ids.length);
+            System.arraycopy(ids, oldest, nGram, 0, ids.length - oldest);
+            System.arraycopy(ids, 0, nGram, ids.length - oldest, oldest);
+            return nGram;
+        }
+    }
+
+    private static void requirePositive(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n muss mindestens 1 sein: " + n);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Zählt n-Gramme aller Ordnungen 1..maxOrder in einem einzigen Durchlauf über den Korpus.
+// Jedes n-Gramm ist ein Knoten eines Präfixbaums (Trie) über Token-IDs: Der Knoten von
+// (a, b, c) ist das Kind mit ID c des Knotens von (a, b). Ein gemeinsames Präfix wird also
+// nur einmal gespeichert, und von jeder Startposition aus werden alle Ordnungen auf demselben
+// Pfad gezählt, statt den Korpus wie produceNGrams* einmal pro n zu durchlaufen.
+//
+// Die Knoten liegen in primitiven Arrays (Elternknoten, Token-ID, Anzahl, Tiefe). Kinder werden
+// nicht als Liste pro Knoten gespeichert, sondern in einer gemeinsamen Hash-Tabelle
+// (Elternknoten << 32 | Token-ID) -> Kindknoten, die mit einer Sondierung sucht und einfügt.
+// Die Kinder der Wurzel (Unigramme) liegen direkt in einem nach Token-ID indizierten Array.
+// Knoten 0 ist die Wurzel (leeres n-Gramm). Ein Kind wird immer nach seinem Elternknoten
+// angelegt, daher gilt parent < node.
+//
+// minOrder begrenzt nur die Ausgabe (forEachNGram, toMap); kürzere Präfixe werden als Knoten
+// des Pfades ohnehin gezählt.
+public class NGramTrie {
+    private static final int ROOT = 0;
+    // Freier Platz der Kind-Tabelle; Schlüssel haben immer parent >= 1 und sind daher nie 0.
+    private static final long FREE = 0L;
+    private static final int BATCH = 8;
+
+    private final int minOrder;
+    private final int maxOrder;
+
+    // Token-ID -> Unigramm-Knoten (0 = fehlt).
+    private int[] rootChildren = new int[1024];
+    // Hash-Tabelle (parent << 32 | id) -> Kindknoten mit linearem Sondieren.
+    private long[] childKeys = new long[2048];
+    private int[] childNodes = new int[2048];
+    private int childMask = 2047;
+
+    private int[] parents = new int[1024];
+    private int[] tokenIds = new int[1024];
+    private long[] counts = new long[1024];
+    private byte[] depths = new byte[1024];
+    private int size = 1;
+
+    public NGramTrie(int minOrder, int maxOrder) {
+        if (minOrder < 1 || maxOrder < minOrder || maxOrder > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Ungültiger Bereich: [" + minOrder + ".." + maxOrder + "]");
+        }
+        this.minOrder = minOrder;
+        this.maxOrder = maxOrder;
+    }
+
+    // Zählt alle n-Gramme (1 <= n <= maxOrder) eines ID-kodierten Dokuments.
+    // Wiederholte Aufrufe (ein Dokument pro Aufruf) addieren zu den bisherigen Zählern.
+    public void addAll(int[] ids) {
+        addStartingIn(ids, 0, ids.length);
+    }
+
+    // Zählt alle n-Gramme, die an einer Position in [from, to) beginnen; sie dürfen über to
+    // hinaus bis zum Ende von ids reichen. So können Abschnitte eines Dokuments unabhängig
+    // gezählt werden, ohne n-Gramme an den Grenzen doppelt oder gar nicht zu zählen.
+    public void addStartingIn(int[] ids, int from, int to) {
+        // Die Suche auf einem Pfad hängt vom vorherigen Knoten ab. Deshalb werden BATCH
+        // Startpositionen Ebene für Ebene gemeinsam verfolgt: Ihre unabhängigen Tabellenzugriffe
+        // können sich im Prozessor überlappen, statt nacheinander auf den Speicher zu warten.
+        int[] nodes = new int[BATCH];
+        for (int start = from; start < to; start += BATCH) {
+            int batch = Math.min(BATCH, to - start);
+            Arrays.fill(nodes, 0, batch, ROOT);
+            for (int level = 0; level < maxOrder; level++) {
+                for (int b = 0; b < batch; b++) {
+                    int position = start + b + level;
+                    if (position < ids.length) {
+                        int node = childOrCreate(nodes[b], ids[position]);
+                        counts[node]++;
+                        nodes[b] = node;
+                    }
+                }
+            }
+        }
+    }
+
+    // Addiert die Zähler eines anderen Tries (gleiches Vocabulary, gleiches maxOrder).
+    public void addAll(NGramTrie other) {
+        if (other.maxOrder != maxOrder) {
+            throw new IllegalArgumentException("Unterschiedliche maxOrder: " + maxOrder + " und " + other.maxOrder);
+        }
+        // Da Elternknoten vor ihren Kindern liegen, ist mapping[other.parents[node]] immer schon gesetzt.
+        int[] mapping = new int[other.size];
+        for (int node = 1; node < other.size; node++) {
+            int mapped = childOrCreate(mapping[other.parents[node]], other.tokenIds[node]);
+            counts[mapped] += other.counts[node];
+            mapping[node] = mapped;
+        }
+    }
+
+    // Liefert die Häufigkeit des n-Gramms (1 <= nGram.length <= maxOrder) oder 0.
+    public long count(int... nGram) {
+        int node = find(nGram);
+        return node > ROOT ? counts[node] : 0L;
+    }
+
+    // Ruft den Consumer für jedes n-Gramm der Ordnung order auf (Reihenfolge der ersten Vorkommen).
+    // Das Array wird wiederverwendet und ist nur während des Aufrufs gültig.
+    public void forEachNGram(int order, NGramCounter.NGramConsumer consumer) {
+        checkOrder(order);
+        int[] nGram = new int[order];
+        for (int node = 1; node < size; node++) {
+            if (depths[node] == order) {
+                int current = node;
+                for (int i = order - 1; i >= 0; i--) {
+                    nGram[i] = tokenIds[current];
+                    current = parents[current];
+                }
+                consumer.accept(nGram, counts[node]);
+            }
+        }
+    }
+
+    // Wandelt die Zählung einer Ordnung in eine Map von n-Gramm-String auf Häufigkeit um
+    // (gleiche Form wie Main.countNGrams).
+    public Map<String, Long> toMap(int order, Vocabulary vocabulary) {
+        Map<String, Long> result = new HashMap<>();
+        forEachNGram(order, (nGram, count) -> result.put(vocabulary.decodeNGram(nGram), count));
+        return result;
+    }
+
+    // Wie toMap, für alle Ordnungen minOrder..maxOrder.
+    // return: Eine Map von n auf die Häufigkeiten der n-Gramme.
+    public Map<Integer, Map<String, Long>> toMaps(Vocabulary vocabulary) {
+        Map<Integer, Map<String, Long>> result = new HashMap<>();
+        for (int order = minOrder; order <= maxOrder; order++) {
+            result.put(order, toMap(order, vocabulary));
+        }
+        return result;
+    }
+
+    // Anzahl der verschiedenen n-Gramme der Ordnung order.
+    public int distinctCount(int order) {
+        checkOrder(order);
+        int distinct = 0;
+        for (int node = 1; node < size; node++) {
+            if (depths[node] == order) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    // Summe aller Häufigkeiten der Ordnung order.
+    public long totalCount(int order) {
+        checkOrder(order);
+        long total = 0;
+        for (int node = 1; node < size; node++) {
+            if (depths[node] == order) {
+                total += counts[node];
+            }
+        }
+        return total;
+    }
+
+    // Anzahl der Knoten ohne Wurzel, also aller verschiedenen n-Gramme der Ordnungen 1..maxOrder.
+    public int nodeCount() {
+        return size - 1;
+    }
+
+    public int minOrder() {
+        return minOrder;
+    }
+
+    public int maxOrder() {
+        return maxOrder;
+    }
+
+    // Sucht den Knoten des n-Gramms.
+    // return: Den Knoten, ROOT für das leere n-Gramm oder -1, wenn es nicht vorkommt.
+    private int find(int[] nGram) {
+        if (nGram.length > maxOrder) {
+            throw new IllegalArgumentException("Höchstens " + maxOrder + " IDs erwartet, erhalten: " + nGram.length);
+        }
+        int node = ROOT;
+        for (int id : nGram) {
+            if (node == ROOT) {
+                node = id >= 0 && id < rootChildren.length && rootChildren[id] > 0 ? rootChildren[id] : -1;
+            } else {
+                long key = key(node, id);
+                int slot = slot(key);
+                while (childKeys[slot] != key && childKeys[slot] != FREE) {
+                    slot = (slot + 1) & childMask;
+                }
+                node = childKeys[slot] == key ? childNodes[slot] : -1;
+            }
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    // Liefert den Kindknoten und legt ihn an, falls er fehlt.
+    private int childOrCreate(int parent, int id) {
+        if (parent == ROOT) {
+            if (id >= rootChildren.length) {
+                rootChildren = Arrays.copyOf(rootChildren, Math.max(id + 1, rootChildren.length << 1));
+            }
+            int child = rootChildren[id];
+            if (child == 0) {
+                child = newNode(parent, id);
+                rootChildren[id] = child;
+            }
+            return child;
+        }
+
+        long key = key(parent, id);
+        int slot = slot(key);
+        long current;
+        while ((current = childKeys[slot]) != FREE) {
+            if (current == key) {
+                return childNodes[slot];
+            }
+            slot = (slot + 1) & childMask;
+        }
+        int child = newNode(parent, id);
+        childKeys[slot] = key;
+        childNodes[slot] = child;
+        // Füllgrad von höchstens 50 %: Die Tabelle enthält höchstens so viele Einträge wie Knoten.
+        if (size > (childMask + 1) >>> 1) {
+            rehashChildren();
+        }
+        return child;
+    }
+
+    private int newNode(int parent, int id) {
+        if (size == parents.length) {
+            int capacity = size << 1;
+            parents = Arrays.copyOf(parents, capacity);
+            tokenIds = Arrays.copyOf(tokenIds, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        int node = size++;
+        parents[node] = parent;
+        tokenIds[node] = id;
+        depths[node] = (byte) (depths[parent] + 1);
+        return node;
+    }
+
+    private void rehashChildren() {
+        long[] oldKeys = childKeys;
+        int[] oldNodes = childNodes;
+        childKeys = new long[oldKeys.length << 1];
+        childNodes = new int[oldKeys.length << 1];
+        childMask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (childKeys[slot] != FREE) {
+                    slot = (slot + 1) & childMask;
+                }
+                childKeys[slot] = oldKeys[i];
+                childNodes[slot] = oldNodes[i];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & childMask;
+    }
+
+    private void checkOrder(int order) {
+        if (order < 1 || order > maxOrder) {
+            throw new IllegalArgumentException("Ordnung außerhalb von [1.." + maxOrder + "]: " + order);
+        }
+    }
+
+    private static long key(int parent, int id) {
+        return ((long) parent << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,333 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.LongAdder;
+
+// Kookkurrenz-Zähler außerhalb des Java-Heaps (Foreign Function & Memory API).
+// Eine Hash-Tabelle mit offener Adressierung (lineares Sondieren) liegt in einem MemorySegment;
+// der Garbage Collector sieht nur dieses eine Objekt, egal wie viele Paare gezählt werden.
+// Jeder Platz belegt 16 Bytes: [Schlüssel + 1][Anzahl], mit Schlüssel = (center << 32) | neighbor.
+// Der Schlüssel wird um 1 verschoben gespeichert, damit ein mit 0 gefüllter Platz frei ist.
+//
+// Threadsicher ohne Sperren: Ein freier Platz wird per compareAndExchange auf den Schlüssel
+// belegt, die Anzahl per atomarem getAndAdd erhöht. Alle Abschnitte eines parallelen Streams
+// können so direkt in dieselbe Tabelle zählen (siehe CooccurrenceAnalysisGatherer.ofIds(window, table)).
+//
+// Die Tabelle wächst nicht: Ihre Größe wird aus expectedPairs berechnet (Füllgrad dann höchstens 70 %),
+// aufnehmen kann sie bis zu pairLimit() Paare (Füllgrad 90 %). addWindowCounts(ids, window) prüft vorab
+// mit maxPairs, ob das Dokument sicher hineinpasst, und wirft sonst eine IllegalStateException, bevor
+// ein Paar gezählt wurde. Nur ein einzelnes add auf eine überfüllte Tabelle scheitert erst unterwegs.
+// Mit open(path, ...) liegt die Tabelle in einer Datei (Memory-Mapping). Sie übersteht dann
+// Neustarts und kann größer als der Hauptspeicher sein; die Datei verwendet die Byte-Reihenfolge
+// der Plattform und ist daher nicht zum Austausch zwischen Rechnern gedacht.
+public class OffHeapCooccurrenceTable implements CooccurrenceSink, AutoCloseable {
+    // Dateikennung und Version des Kopfes (64 Bytes, danach die Plätze).
+    private static final long MAGIC = 0x5842_4154_4845_4F43L;
+    private static final long VERSION = 1;
+    private static final long HEADER_BYTES = 64;
+    private static final long SLOT_BYTES = 16;
+    private static final long FREE = 0L;
+    // Ab dieser Sondierungslänge wird geprüft, ob die Tabelle überfüllt ist.
+    private static final int LONG_PROBE = 64;
+    // Füllgrad, für den capacityFor die Größe wählt, und höchster erlaubter Füllgrad.
+    private static final double TARGET_LOAD = 0.7;
+    private static final double MAX_LOAD = 0.9;
+
+    // Koordinaten (MemorySegment, long Byte-Offset); erlaubt atomare Zugriffe auf 8-Byte-Grenzen.
+    private static final VarHandle LONG = ValueLayout.JAVA_LONG.varHandle();
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final FileChannel channel;
+    private final long capacity;
+    private final long mask;
+    private final LongAdder size = new LongAdder();
+
+    private OffHeapCooccurrenceTable(Arena arena, MemorySegment segment, FileChannel channel, long capacity) {
+        this.arena = arena;
+        this.segment = segment;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    // Legt eine leere Tabelle im Hauptspeicher (außerhalb des Heaps) an.
+    // param: expectedPairs Erwartete Anzahl verschiedener Paare.
+    public static OffHeapCooccurrenceTable allocate(long expectedPairs) {
+        long capacity = capacityFor(expectedPairs);
+        // Shared Arena: Alle Threads dürfen zugreifen; close() gibt den Speicher sofort frei.
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment segment = arena.allocate(HEADER_BYTES + capacity * SLOT_BYTES, 64);
+            writeHeader(segment, capacity);
+            return new OffHeapCooccurrenceTable(arena, segment, null, capacity);
+        } catch (RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    // Öffnet eine Tabelle in einer Datei oder legt sie an, falls die Datei fehlt oder leer ist.
+    // Eine bestehende Tabelle behält ihre Größe und ihre Zähler; expectedPairs gilt nur für neue.
+    public static OffHeapCooccurrenceTable open(Path path, long expectedPairs) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Arena arena = Arena.ofShared();
+        try {
+            boolean created = channel.size() == 0;
+            long capacity = created ? capacityFor(expectedPairs) : readCapacity(channel, path);
+            long bytes = HEADER_BYTES + capacity * SLOT_BYTES;
+            if (!created && channel.size() != bytes) {
+                throw new IOException("Unerwartete Dateigröße: " + path);
+            }
+            // Eine vergrößerte Datei ist mit 0 gefüllt, also sind alle Plätze frei.
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, arena);
+            OffHeapCooccurrenceTable table = new OffHeapCooccurrenceTable(arena, segment, channel, capacity);
+            if (created) {
+                writeHeader(segment, capacity);
+            } else {
+                table.size.add(table.countOccupiedSlots());
+            }
+            return table;
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Erhöht den Zähler des Paares (center, neighbor) um delta. Threadsicher.
+    public void add(int center, int neighbor, long delta) {
+        long stored = pack(center, neighbor) + 1;
+        long slot = mix(stored) & mask;
+        for (int probe = 0; ; probe++) {
+            long offset = HEADER_BYTES + slot * SLOT_BYTES;
+            long current = (long) LONG.getAcquire(segment, offset);
+            if (current == FREE) {
+                current = (long) LONG.compareAndExchange(segment, offset, FREE, stored);
+                if (current == FREE) {
+                    // Platz belegt; konkurrierende Threads mit demselben Paar landen im nächsten Zweig.
+                    size.increment();
+                    current = stored;
+                }
+            }
+            if (current == stored) {
+                LONG.getAndAdd(segment, offset + Long.BYTES, delta);
+                return;
+            }
+            if (probe == LONG_PROBE) {
+                checkLoad();
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public void increment(int center, int neighbor) {
+        add(center, neighbor, 1L);
+    }
+
+    // Zeilen ohne Paare werden nicht gespeichert (siehe toMatrix).
+    @Override
+    public void ensureRow(int center) {
+    }
+
+    // Liefert die Anzahl des Paares oder 0.
+    public long get(int center, int neighbor) {
+        long stored = pack(center, neighbor) + 1;
+        long slot = mix(stored) & mask;
+        for (long probe = 0; probe < capacity; probe++) {
+            long offset = HEADER_BYTES + slot * SLOT_BYTES;
+            long current = (long) LONG.getAcquire(segment, offset);
+            if (current == stored) {
+                return (long) LONG.getVolatile(segment, offset + Long.BYTES);
+            }
+            if (current == FREE) {
+                return 0L;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0L;
+    }
+
+    // Zählt alle Paare innerhalb des Fensters eines ID-kodierten Dokuments
+    // (wie CooccurrenceMatrix.addWindowCounts). Passt das Dokument nicht sicher in die Tabelle
+    // (siehe ensureRoomFor), wird nichts gezählt.
+    public void addWindowCounts(int[] ids, int window) {
+        ensureRoomFor(maxPairs(ids, window));
+        addWindowCounts(ids, 0, ids.length, window);
+    }
+
+    // Zählt die Paare der Zentrumswörter an den Positionen [from, to); Nachbarn werden im ganzen
+    // Dokument gesucht. Mehrere Threads können so disjunkte Abschnitte gleichzeitig zählen.
+    // Prüft den Platz nicht; der Aufrufer ruft vorher einmal ensureRoomFor(maxPairs(ids, window)) auf.
+    public void addWindowCounts(int[] ids, int from, int to, int window) {
+        for (int i = from; i < to; i++) {
+            int start = Math.max(0, i - window);
+            int end = Math.min(ids.length - 1, i + window);
+            for (int j = start; j <= end; j++) {
+                if (j != i) {
+                    add(ids[i], ids[j], 1L);
+                }
+            }
+        }
+    }
+
+    // Ruft den Consumer für jedes Paar auf (Reihenfolge der Tabellenplätze).
+    // Sollte nicht gleichzeitig mit add aufgerufen werden.
+    public void forEach(CooccurrenceMatrix.EntryConsumer consumer) {
+        for (long slot = 0; slot < capacity; slot++) {
+            long offset = HEADER_BYTES + slot * SLOT_BYTES;
+            long stored = segment.get(ValueLayout.JAVA_LONG, offset);
+            if (stored != FREE) {
+                long key = stored - 1;
+                consumer.accept((int) (key >>> 32), (int) key, segment.get(ValueLayout.JAVA_LONG, offset + Long.BYTES));
+            }
+        }
+    }
+
+    // Kopiert die Tabelle in eine CooccurrenceMatrix (z.B. für toMap oder JsonResultWriter).
+    // Die Tabelle speichert nur Paare: Zentrumswörter ohne einen einzigen Nachbarn (ensureRow ist
+    // hier wirkungslos) fehlen in der Matrix, anders als bei einer direkt gezählten Matrix.
+    // Das betrifft nur Dokumente aus einem einzigen Token.
+    public CooccurrenceMatrix toMatrix() {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        forEach(matrix::add);
+        return matrix;
+    }
+
+    // Anzahl der verschiedenen Paare.
+    public long size() {
+        return size.sum();
+    }
+
+    // Höchstzahl verschiedener Paare, die die Tabelle aufnimmt.
+    public long pairLimit() {
+        return (long) (capacity * MAX_LOAD);
+    }
+
+    // Wirft eine IllegalStateException, falls newPairs weitere Paare die Tabelle überfüllen könnten.
+    // Gedacht für die Prüfung vor dem Zählen, damit eine Datei-Tabelle nicht halb gezählt zurückbleibt.
+    // param: newPairs Obergrenze der neu hinzukommenden Paare (z.B. aus maxPairs).
+    public void ensureRoomFor(long newPairs) {
+        if (size.sum() + newPairs > pairLimit()) {
+            throw new IllegalStateException("Die Tabelle ist zu klein (" + size.sum() + " Paare belegt, bis zu "
+                    + newPairs + " neue, höchstens " + pairLimit() + "); bitte mit einem größeren expectedPairs anlegen.");
+        }
+    }
+
+    // Obergrenze der verschiedenen Paare, die addWindowCounts(ids, window) zählen kann: höchstens
+    // ein Paar je Paarvorkommen und höchstens (Anzahl verschiedener IDs)² Paare.
+    // Als expectedPairs für allocate oder open geeignet.
+    public static long maxPairs(int[] ids, int window) {
+        long occurrences = 0;
+        for (int i = 0; i < ids.length; i++) {
+            occurrences += Math.min(ids.length - 1, i + window) - Math.max(0, i - window);
+        }
+        BitSet distinct = new BitSet();
+        for (int id : ids) {
+            if (id < 0) {
+                throw new IllegalArgumentException("Ungültige ID: " + id);
+            }
+            distinct.set(id);
+        }
+        long distinctIds = distinct.cardinality();
+        return Math.min(occurrences, distinctIds * distinctIds);
+    }
+
+    // Anzahl der Plätze der Tabelle.
+    public long capacity() {
+        return capacity;
+    }
+
+    // Belegter Speicher außerhalb des Heaps (bzw. Dateigröße) in Bytes.
+    public long sizeInBytes() {
+        return segment.byteSize();
+    }
+
+    // Schreibt Änderungen einer Datei-Tabelle auf die Platte.
+    public void force() {
+        if (channel != null) {
+            segment.force();
+        }
+    }
+
+    // Gibt den Speicher frei (und schreibt eine Datei-Tabelle vorher auf die Platte).
+    // Danach darf kein Thread mehr auf die Tabelle zugreifen.
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+            arena.close();
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private void checkLoad() {
+        if (size.sum() > capacity * MAX_LOAD) {
+            throw new IllegalStateException("Die Tabelle ist zu voll (" + size.sum() + " von " + capacity
+                    + " Plätzen belegt); bitte mit einem größeren expectedPairs anlegen.");
+        }
+    }
+
+    private long countOccupiedSlots() {
+        long occupied = 0;
+        for (long slot = 0; slot < capacity; slot++) {
+            if (segment.get(ValueLayout.JAVA_LONG, HEADER_BYTES + slot * SLOT_BYTES) != FREE) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    private static void writeHeader(MemorySegment segment, long capacity) {
+        segment.set(ValueLayout.JAVA_LONG, 0, MAGIC);
+        segment.set(ValueLayout.JAVA_LONG, 8, VERSION);
+        segment.set(ValueLayout.JAVA_LONG, 16, capacity);
+    }
+
+    private static long readCapacity(FileChannel channel, Path path) throws IOException {
+        try (Arena header = Arena.ofConfined()) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Keine Kookkurrenz-Tabelle: " + path);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES, header);
+            long capacity = segment.get(ValueLayout.JAVA_LONG, 16);
+            if (segment.get(ValueLayout.JAVA_LONG, 0) != MAGIC || segment.get(ValueLayout.JAVA_LONG, 8) != VERSION
+                    || capacity <= 0 || Long.bitCount(capacity) != 1) {
+                throw new IOException("Keine Kookkurrenz-Tabelle oder unbekannte Version: " + path);
+            }
+            return capacity;
+        }
+    }
+
+    // Zweierpotenz, sodass expectedPairs höchstens TARGET_LOAD (70 %) der Plätze belegen.
+    private static long capacityFor(long expectedPairs) {
+        if (expectedPairs < 0) {
+            throw new IllegalArgumentException("expectedPairs darf nicht negativ sein: " + expectedPairs);
+        }
+        long minimum = Math.max(16, (long) Math.ceil(expectedPairs / TARGET_LOAD));
+        return Long.highestOneBit(minimum - 1) << 1;
+    }
+
+    private static long pack(int center, int neighbor) {
+        if (center < 0) {
+            throw new IllegalArgumentException("Ungültige ID: " + center);
+        }
+        return ((long) center << 32) | (neighbor & 0xFFFFFFFFL);
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,449 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lokaler HTTP-Dienst für Abfragen auf einer fertigen Analyse (com.sun.net.httpserver).
+// Der Kookkurrenz-Index wird per Memory-Mapping gelesen (CooccurrenceIndex), die n-Gramm-
+// Häufigkeiten liegen in einer HashMap. Jede Anfrage läuft in einem eigenen virtuellen Thread.
+//
+// Endpunkte (nur GET, Antworten als JSON):
+// - /topk?word=see&k=10   die k häufigsten Nachbarn  {"word":"see","neighbors":{"der":3,...}}
+// - /row?word=see         alle Nachbarn eines Wortes (aufsteigend nach ID)
+// - /ngram?q=in+der+see   Häufigkeit eines n-Gramms  {"ngram":"in der see","count":3}
+// - /metrics              Anfragen, Cache-Treffer und Latenz-Histogramme pro Endpunkt
+// Unbekannte Wörter liefern 404, fehlerhafte Parameter 400, andere Fehler 500.
+//
+// Häufige Anfragen werden als fertige Antwort-Bytes in einem LRU-Cache gehalten, sodass ein
+// Treffer weder den Index liest noch JSON erzeugt. Der Schlüssel wird aus den geprüften und
+// normalisierten Parametern gebildet (Schreibweise, Reihenfolge, Standardwerte), sodass z.B.
+// /topk?word=See&k=3 und /topk?k=3&word=see denselben Eintrag verwenden. Die Latenz jeder Anfrage wird in ein
+// Histogramm mit Zweierpotenz-Stufen (in Nanosekunden) pro Endpunkt eingetragen; die Zähler
+// sind LongAdder und daher unter vielen gleichzeitigen Anfragen günstig.
+//
+// Verwendung:
+// try (CooccurrenceIndex index = CooccurrenceIndex.open(indexPath);
+//      QueryServer server = QueryServer.start(8080, index, QueryServer.readNGramCounts(nGramPath), 10_000)) {
+//     ...
+// }
+// oder von der Kommandozeile: java QueryServer <port> <index-datei> [n-gramm-datei]
+public class QueryServer implements AutoCloseable {
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+    private static final int DEFAULT_K = 10;
+    // Warteschlange für noch nicht angenommene Verbindungen.
+    private static final int BACKLOG = 1024;
+    // Ein Histogramm-Eimer pro Zweierpotenz einer Latenz in Nanosekunden.
+    private static final int BUCKETS = 64;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CooccurrenceIndex index;
+    private final Map<String, Long> nGramCounts;
+    private final ResponseCache cache;
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    private QueryServer(HttpServer server, ExecutorService executor, CooccurrenceIndex index,
+                        Map<String, Long> nGramCounts, int cacheEntries) {
+        this.server = server;
+        this.executor = executor;
+        this.index = index;
+        this.nGramCounts = nGramCounts;
+        this.cache = new ResponseCache(cacheEntries);
+    }
+
+    // Startet den Dienst auf der Loopback-Adresse.
+    // Der Index wird nicht vom Dienst geschlossen; er muss bis close() geöffnet bleiben.
+    // param: port Port oder 0 für einen freien Port (siehe port()).
+    // param: nGramCounts Häufigkeiten mit Schlüsseln wie Vocabulary.decodeNGram ("in der see").
+    // param: cacheEntries Anzahl der zwischengespeicherten Antworten (0 = kein Cache).
+    public static QueryServer start(int port, CooccurrenceIndex index, Map<String, Long> nGramCounts,
+                                    int cacheEntries) throws IOException {
+        if (cacheEntries < 0) {
+            throw new IllegalArgumentException("cacheEntries darf nicht negativ sein: " + cacheEntries);
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        QueryServer queryServer = new QueryServer(server, executor, index, nGramCounts, cacheEntries);
+        queryServer.register("/topk", true, QueryServer::wordAndK, queryServer::topK);
+        queryServer.register("/row", true, QueryServer::word, queryServer::row);
+        queryServer.register("/ngram", true, QueryServer::nGramText, queryServer::nGram);
+        queryServer.register("/metrics", false, _ -> new TreeMap<>(),
+                _ -> new Response(200, GSON.toJson(queryServer.metrics())));
+        server.start();
+        return queryServer;
+    }
+
+    // Liest n-Gramm-Häufigkeiten, die JsonResultWriter (Kind.NGRAM_COUNTS) oder
+    // Main.writeToJsonFile geschrieben hat: {"a b": 3, ...} oder eine Zeile {"ngram":"a b","count":3} pro n-Gramm.
+    public static Map<String, Long> readNGramCounts(Path path) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonReader json = new JsonReader(in);
+            // Erlaubt mehrere JSON-Werte auf oberster Ebene (NDJSON).
+            json.setStrictness(Strictness.LENIENT);
+            while (json.peek() != JsonToken.END_DOCUMENT) {
+                json.beginObject();
+                String nGram = null;
+                long count = 0;
+                while (json.hasNext()) {
+                    String name = json.nextName();
+                    if (json.peek() == JsonToken.STRING && name.equals("ngram")) {
+                        nGram = json.nextString();
+                    } else if (nGram != null && name.equals("count")) {
+                        count = json.nextLong();
+                    } else {
+                        counts.put(name, json.nextLong());
+                    }
+                }
+                json.endObject();
+                if (nGram != null) {
+                    counts.put(nGram, count);
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Der tatsächlich verwendete Port.
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // Momentaufnahme der Messwerte (Inhalt von /metrics).
+    public Metrics metrics() {
+        Map<String, EndpointReport> reports = new LinkedHashMap<>();
+        endpoints.forEach((path, endpoint) -> reports.put(path, endpoint.report()));
+        return new Metrics(reports, cache.size(), cache.capacity);
+    }
+
+    // Beendet den Dienst und wartet, bis alle Anfrage-Threads fertig sind.
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // Die Parameter erhalten ihre Werte bereits normalisiert (siehe wordAndK, word, nGramText).
+    private Response topK(SortedMap<String, String> parameters) {
+        String word = parameters.get("word");
+        if (index.idOf(word) == Vocabulary.UNKNOWN) {
+            return notFound(word);
+        }
+        return new Response(200, GSON.toJson(new WordResult(word, index.topK(word, Integer.parseInt(parameters.get("k"))))));
+    }
+
+    private Response row(SortedMap<String, String> parameters) {
+        String word = parameters.get("word");
+        if (index.idOf(word) == Vocabulary.UNKNOWN) {
+            return notFound(word);
+        }
+        return new Response(200, GSON.toJson(new WordResult(word, index.row(word))));
+    }
+
+    private Response nGram(SortedMap<String, String> parameters) {
+        String nGram = parameters.get("q");
+        return new Response(200, GSON.toJson(new NGramResult(nGram, nGramCounts.getOrDefault(nGram, 0L))));
+    }
+
+    // Wort klein geschrieben, k als Zahl (Standard DEFAULT_K).
+    private static SortedMap<String, String> wordAndK(Map<String, String> parameters) {
+        SortedMap<String, String> normalized = word(parameters);
+        int k = parameters.containsKey("k") ? Integer.parseInt(parameters.get("k").trim()) : DEFAULT_K;
+        if (k < 0) {
+            throw new IllegalArgumentException("k darf nicht negativ sein: " + k);
+        }
+        normalized.put("k", Integer.toString(k));
+        return normalized;
+    }
+
+    private static SortedMap<String, String> word(Map<String, String> parameters) {
+        SortedMap<String, String> normalized = new TreeMap<>();
+        normalized.put("word", requiredParameter(parameters, "word").trim().toLowerCase());
+        return normalized;
+    }
+
+    // Gleiche Schreibweise wie Vocabulary.decodeNGram: klein, durch ein Leerzeichen getrennt.
+    private static SortedMap<String, String> nGramText(Map<String, String> parameters) {
+        SortedMap<String, String> normalized = new TreeMap<>();
+        normalized.put("q", String.join(" ", requiredParameter(parameters, "q").toLowerCase().trim().split("\\s+")));
+        return normalized;
+    }
+
+    private void register(String path, boolean cached, Normalizer normalizer, Query query) {
+        Endpoint endpoint = new Endpoint();
+        endpoints.put(path, endpoint);
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try (exchange) {
+                handle(exchange, endpoint, cached, normalizer, query);
+            } finally {
+                endpoint.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint, boolean cached, Normalizer normalizer,
+                        Query query) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            endpoint.errors.increment();
+            send(exchange, 405, error("Nur GET wird unterstützt.").getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        Response response;
+        String cacheKey = null;
+        try {
+            SortedMap<String, String> parameters = normalizer.normalize(parseQuery(exchange.getRequestURI().getRawQuery()));
+            if (cached) {
+                cacheKey = cacheKey(exchange.getHttpContext().getPath(), parameters);
+                byte[] body = cache.get(cacheKey);
+                if (body != null) {
+                    endpoint.cacheHits.increment();
+                    send(exchange, body);
+                    return;
+                }
+            }
+            response = query.answer(parameters);
+        } catch (IllegalArgumentException e) {
+            // Auch NumberFormatException, z.B. bei k=abc.
+            response = new Response(400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            // Ein Fehler im Dienst selbst (z.B. beim Lesen des Index): Der Client erhält trotzdem eine Antwort.
+            System.err.println("Fehler bei " + exchange.getRequestURI() + ": " + e);
+            response = new Response(500, error("Interner Fehler."));
+        }
+        if (response.status() != 200) {
+            endpoint.errors.increment();
+        } else if (cacheKey != null) {
+            cache.put(cacheKey, response.body());
+        }
+        send(exchange, response.status(), response.body());
+    }
+
+    // Pfad und normalisierte Parameter in fester (sortierter) Reihenfolge, URL-kodiert.
+    private static String cacheKey(String path, SortedMap<String, String> parameters) {
+        StringBuilder key = new StringBuilder(path).append('?');
+        parameters.forEach((name, value) -> key.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)).append('&'));
+        return key.toString();
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        send(exchange, 200, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String requiredParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Parameter fehlt: " + name);
+        }
+        return value;
+    }
+
+    private static Response notFound(String word) {
+        return new Response(404, error("Unbekanntes Wort: " + word));
+    }
+
+    private static String error(String message) {
+        return GSON.toJson(Map.of("error", message));
+    }
+
+    // Prüft die Parameter einer Anfrage und bringt sie in eine einheitliche Form.
+    // Wirft IllegalArgumentException bei fehlenden oder ungültigen Parametern.
+    @FunctionalInterface
+    private interface Normalizer {
+        SortedMap<String, String> normalize(Map<String, String> parameters);
+    }
+
+    // Beantwortet eine Anfrage anhand ihrer normalisierten Parameter.
+    @FunctionalInterface
+    private interface Query {
+        Response answer(SortedMap<String, String> parameters);
+    }
+
+    private record Response(int status, byte[] body) {
+        private Response(int status, String json) {
+            this(status, json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private record WordResult(String word, Map<String, Long> neighbors) {
+    }
+
+    private record NGramResult(String ngram, long count) {
+    }
+
+    // Inhalt von /metrics.
+    public record Metrics(Map<String, EndpointReport> endpoints, int cacheEntries, int cacheCapacity) {
+    }
+
+    // Messwerte eines Endpunkts; Latenzen in Mikrosekunden. Die Perzentile sind die Obergrenze
+    // des Histogramm-Eimers, in den sie fallen, also höchstens um den Faktor 2 zu hoch.
+    public record EndpointReport(long requests,
+                                 long cacheHits,
+                                 long errors,
+                                 double p50Micros,
+                                 double p90Micros,
+                                 double p99Micros,
+                                 double maxMicros,
+                                 List<Bucket> histogram) {
+    }
+
+    // Anzahl der Anfragen mit einer Latenz unter upperMicros (und ab der Hälfte davon).
+    public record Bucket(double upperMicros, long count) {
+    }
+
+    // Zähler und Latenz-Histogramm eines Endpunkts. Eimer i enthält Latenzen in [2^(i-1), 2^i) ns.
+    private static final class Endpoint {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        private Endpoint() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            requests.increment();
+            buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)))].increment();
+        }
+
+        private EndpointReport report() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            List<Bucket> histogram = new ArrayList<>();
+            double max = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    histogram.add(new Bucket(upperMicros(i), counts[i]));
+                    max = upperMicros(i);
+                }
+            }
+            return new EndpointReport(requests.sum(), cacheHits.sum(), errors.sum(),
+                    percentile(counts, total, 0.5), percentile(counts, total, 0.9), percentile(counts, total, 0.99),
+                    max, histogram);
+        }
+
+        private static double percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen > 0 && seen >= rank) {
+                    return upperMicros(i);
+                }
+            }
+            return 0;
+        }
+
+        private static double upperMicros(int bucket) {
+            return Math.scalb(1.0, bucket) / 1000.0;
+        }
+    }
+
+    // LRU-Cache fertiger Antworten: Anfrage (Pfad und normalisierte Parameter) -> JSON-Bytes.
+    // Eine LinkedHashMap in Zugriffsreihenfolge verdrängt die am längsten nicht gelesene Antwort.
+    private static final class ResponseCache {
+        private final int capacity;
+        private final LinkedHashMap<String, byte[]> entries;
+
+        private ResponseCache(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    return size() > ResponseCache.this.capacity;
+                }
+            };
+        }
+
+        private synchronized byte[] get(String key) {
+            return capacity > 0 ? entries.get(key) : null;
+        }
+
+        private synchronized void put(String key, byte[] body) {
+            if (capacity > 0) {
+                entries.put(key, body);
+            }
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    // Startet den Dienst für einen Index und optional eine Datei mit n-Gramm-Häufigkeiten
+    // und läuft, bis der Prozess beendet wird.
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Verwendung: java QueryServer <port> <index-datei> [n-gramm-datei] [cache-einträge]");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        CooccurrenceIndex index = CooccurrenceIndex.open(Path.of(args[1]));
+        Map<String, Long> nGramCounts = args.length > 2 ? readNGramCounts(Path.of(args[2])) : Map.of();
+        int cacheEntries = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        QueryServer server = QueryServer.start(port, index, nGramCounts, cacheEntries);
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(() -> {
+            server.close();
+            index.close();
+        }));
+        System.out.println("Abfragedienst läuft auf http://localhost:" + server.port()
+                + " (/topk, /row, /ngram, /metrics)");
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+// Ein Stapel (center, context)-Paare für Skip-Gram-Training (word2vec) als zwei parallele
+// int-Arrays: Paar i ist (centers()[i], contexts()[i]) für 0 <= i < size().
+// SkipGramGatherer verwendet dasselbe Objekt für alle Stapel eines Streams wieder; sein Inhalt
+// ist nur während des Aufrufs des nachgelagerten Consumers gültig (siehe copy()).
+public final class SkipGramBatch {
+    private final int[] centers;
+    private final int[] contexts;
+    private int size;
+
+    SkipGramBatch(int capacity) {
+        this.centers = new int[capacity];
+        this.contexts = new int[capacity];
+    }
+
+    private SkipGramBatch(int[] centers, int[] contexts, int size) {
+        this.centers = centers;
+        this.contexts = contexts;
+        this.size = size;
+    }
+
+    // Zentrumswörter; gültig sind nur die ersten size() Einträge.
+    public int[] centers() {
+        return centers;
+    }
+
+    // Kontextwörter; gültig sind nur die ersten size() Einträge.
+    public int[] contexts() {
+        return contexts;
+    }
+
+    // Anzahl der Paare (nur der letzte Stapel eines Streams kann kleiner als capacity() sein).
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return centers.length;
+    }
+
+    // Kopie, die nach dem Aufruf behalten werden darf (z.B. für eine Warteschlange zum Trainer).
+    public SkipGramBatch copy() {
+        return new SkipGramBatch(Arrays.copyOf(centers, size), Arrays.copyOf(contexts, size), size);
+    }
+
+    // Fügt ein Paar an.
+    // return: true, wenn der Stapel danach voll ist.
+    boolean add(int center, int context) {
+        centers[size] = center;
+        contexts[size] = context;
+        return ++size == centers.length;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
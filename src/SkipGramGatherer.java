@@ -0,0 +1,188 @@
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+// Erzeugt aus einem ID-kodierten Token-Stream die (center, context)-Paare des Skip-Gram-Trainings
+// (word2vec) und gibt sie in Stapeln fester Größe aus (siehe SkipGramBatch).
+// Ohne Optionen sind es genau die Paare, die CooccurrenceAnalysisGatherer.ofIds(window) zählt:
+// Jedes Token ist einmal Zentrum, jedes andere Token im Abstand <= window einmal Kontext.
+//
+// Optionen wie in word2vec (Mikolov et al. 2013):
+// - Subsampling: Ein Token mit relativer Häufigkeit f wird mit Wahrscheinlichkeit
+//   (sqrt(f / sample) + 1) * sample / f behalten; häufige Wörter ("der", "und") fallen so
+//   überwiegend weg. Die Fenster werden über die behaltenen Tokens gebildet.
+// - Dynamisches Fenster: Jedes Zentrum zieht seine Fenstergröße gleichverteilt aus 1..window,
+//   nahe Kontexte kommen dadurch häufiger vor als ferne.
+//
+// Paare werden ausgegeben, sobald ihr späteres Token ankommt: Der Zustand ist ein Ringpuffer der
+// letzten window Tokens mit ihrer Fenstergröße. Ein Stapel wird bei jeder Ausgabe wiederverwendet
+// und ist nur während des Aufrufs des nachgelagerten Consumers gültig; pro Token entstehen so
+// keine Objekte. Mit forEachBatch(int[], ...) entfällt auch das Boxing der Eingabe.
+// Der Gatherer arbeitet sequenziell (wie NGramGatherer.ofIds); ein Stream mit festem seed
+// liefert immer dieselben Paare.
+//
+// Beispiel: Arrays.stream(ids).boxed().gather(new SkipGramGatherer(5, 4096)).forEach(trainer::train)
+public class SkipGramGatherer implements Gatherer<Integer, SkipGramGatherer.State, SkipGramBatch> {
+    private final int window;
+    private final int batchSize;
+    private final boolean dynamicWindow;
+    // Wahrscheinlichkeit, ein Token zu behalten, nach ID; null = kein Subsampling.
+    private final float[] keepProbabilities;
+    private final long seed;
+
+    // Ohne Subsampling und mit festem Fenster.
+    public SkipGramGatherer(int window, int batchSize) {
+        this(window, batchSize, false, 0, null, 0L);
+    }
+
+    // param: window Größte Entfernung zwischen Zentrum und Kontext.
+    // param: batchSize Anzahl der Paare pro Stapel.
+    // param: dynamicWindow Fenstergröße pro Zentrum zufällig aus 1..window.
+    // param: sample Schwellwert des Subsamplings (word2vec: 1e-3 bis 1e-5), 0 = aus.
+    // param: frequencies Häufigkeit jeder ID im Korpus (siehe frequencies(int[])); nur für sample > 0 nötig.
+    // param: seed Startwert des Zufallsgenerators.
+    public SkipGramGatherer(int window, int batchSize, boolean dynamicWindow,
+                            double sample, long[] frequencies, long seed) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize muss mindestens 1 sein: " + batchSize);
+        }
+        if (sample < 0) {
+            throw new IllegalArgumentException("sample darf nicht negativ sein: " + sample);
+        }
+        if (sample > 0 && frequencies == null) {
+            throw new IllegalArgumentException("Subsampling benötigt die Häufigkeiten der IDs.");
+        }
+        this.window = window;
+        this.batchSize = batchSize;
+        this.dynamicWindow = dynamicWindow;
+        this.keepProbabilities = sample > 0 ? keepProbabilities(frequencies, sample) : null;
+        this.seed = seed;
+    }
+
+    // Zählt, wie oft jede ID vorkommt (Index = ID).
+    public static long[] frequencies(int[] ids) {
+        int max = -1;
+        for (int id : ids) {
+            requireValidId(id);
+            max = Math.max(max, id);
+        }
+        long[] frequencies = new long[max + 1];
+        for (int id : ids) {
+            frequencies[id]++;
+        }
+        return frequencies;
+    }
+
+    // Ringpuffer der letzten window behaltenen Tokens, deren Fenstergrößen und der Stapel.
+    public static final class State {
+        private final int[] ids;
+        private final int[] spans;
+        private final SkipGramBatch batch;
+        private final SplittableRandom random;
+        // Anzahl der bisher behaltenen Tokens.
+        private long kept;
+
+        private State(int window, int batchSize, long seed) {
+            this.ids = new int[window];
+            this.spans = new int[window];
+            this.batch = new SkipGramBatch(batchSize);
+            this.random = new SplittableRandom(seed);
+        }
+    }
+
+    @Override
+    public Supplier<State> initializer() {
+        return () -> new State(window, batchSize, seed);
+    }
+
+    @Override
+    public Integrator<State, Integer, SkipGramBatch> integrator() {
+        return Integrator.of((state, id, downstream) -> accept(state, id, downstream));
+    }
+
+    // Gibt den letzten, nicht vollen Stapel aus.
+    @Override
+    public BiConsumer<State, Downstream<? super SkipGramBatch>> finisher() {
+        return (state, downstream) -> {
+            if (state.batch.size() > 0 && !downstream.isRejecting()) {
+                downstream.push(state.batch);
+                state.batch.clear();
+            }
+        };
+    }
+
+    // Erzeugt alle Stapel eines ID-Arrays ohne Stream und ohne Boxing.
+    public void forEachBatch(int[] ids, Consumer<? super SkipGramBatch> consumer) {
+        State state = initializer().get();
+        Downstream<SkipGramBatch> downstream = batch -> {
+            consumer.accept(batch);
+            return true;
+        };
+        for (int id : ids) {
+            accept(state, id, downstream);
+        }
+        finisher().accept(state, downstream);
+    }
+
+    // Nimmt ein Token auf und gibt seine Paare mit den vorangehenden Tokens im Fenster aus.
+    // return: false, sobald der Downstream keine Stapel mehr annimmt.
+    private boolean accept(State state, int id, Downstream<? super SkipGramBatch> downstream) {
+        // IDs ab keepProbabilities.length (ohne Häufigkeit) werden immer behalten, negative sind ungültig.
+        requireValidId(id);
+        if (keepProbabilities != null && id < keepProbabilities.length
+                && state.random.nextFloat() >= keepProbabilities[id]) {
+            return true;
+        }
+        int span = dynamicWindow ? 1 + state.random.nextInt(window) : window;
+
+        // Vorgänger y im Abstand d: (y, id), wenn d im Fenster von y liegt, und (id, y), wenn im eigenen.
+        int previous = (int) Math.min(window, state.kept);
+        for (int d = 1; d <= previous; d++) {
+            int slot = (int) ((state.kept - d) % window);
+            int other = state.ids[slot];
+            if (d <= state.spans[slot] && state.batch.add(other, id) && !flush(state, downstream)) {
+                return false;
+            }
+            if (d <= span && state.batch.add(id, other) && !flush(state, downstream)) {
+                return false;
+            }
+        }
+        int slot = (int) (state.kept % window);
+        state.ids[slot] = id;
+        state.spans[slot] = span;
+        state.kept++;
+        return true;
+    }
+
+    private static boolean flush(State state, Downstream<? super SkipGramBatch> downstream) {
+        boolean more = downstream.push(state.batch);
+        state.batch.clear();
+        return more;
+    }
+
+    private static void requireValidId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ungültige ID: " + id);
+        }
+    }
+
+    private static float[] keepProbabilities(long[] frequencies, double sample) {
+        long total = 0;
+        for (long frequency : frequencies) {
+            total += frequency;
+        }
+        double threshold = sample * total;
+        float[] keep = new float[frequencies.length];
+        for (int id = 0; id < frequencies.length; id++) {
+            long frequency = frequencies[id];
+            keep[id] = frequency == 0 ? 1f
+                    : (float) Math.min(1.0, (Math.sqrt(frequency / threshold) + 1) * threshold / frequency);
+        }
+        return keep;
+    }
+}
@@ -0,0 +1,232 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Space-Saving-Algorithmus (Metwally et al.): verfolgt die häufigsten Schlüssel eines Streams
+// mit höchstens capacity Einträgen. Ist die Tabelle voll, verdrängt ein neuer Schlüssel den
+// Eintrag mit der kleinsten Anzahl und übernimmt dessen Anzahl als Fehler.
+// Garantien für jeden verfolgten Schlüssel:
+//     count - error <= wahrer Wert <= count,
+// und jeder Schlüssel mit wahrer Häufigkeit > totalCount() / capacity wird verfolgt.
+// Die Einträge liegen in primitiven Arrays; ein Min-Heap über die Anzahl findet den
+// zu verdrängenden Eintrag in O(log capacity).
+//
+// Optional wird zu jedem Eintrag ein int-Tupel fester Länge gespeichert (z.B. die IDs eines
+// n-Gramms zum Fingerabdruck), damit die Ergebnisse dekodiert werden können.
+public class SpaceSaving {
+    private final int capacity;
+    private final int tupleLength;
+
+    // Einträge an festen Plätzen.
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] tuples;
+    private int size;
+    private long totalCount;
+
+    // Schlüssel -> Platz.
+    private final LongLongHashMap slotsByKey;
+    // Min-Heap über die Plätze (nach Anzahl) und die Position jedes Platzes im Heap.
+    private final int[] heap;
+    private final int[] heapPositions;
+
+    // Ein verfolgter Schlüssel: count ist eine obere Schranke, count - error eine untere.
+    // tuple ist null, wenn ohne Tupel gezählt wird.
+    public record Entry(long key, long count, long error, int[] tuple) {
+    }
+
+    // param: capacity Anzahl der verfolgten Schlüssel (mehr als die gesuchten Top-K verbessert die Genauigkeit).
+    // param: tupleLength Länge des gespeicherten Tupels pro Eintrag (0 für keines).
+    public SpaceSaving(int capacity, int tupleLength) {
+        if (capacity < 1 || tupleLength < 0) {
+            throw new IllegalArgumentException("Ungültige Parameter: capacity=" + capacity + ", tupleLength=" + tupleLength);
+        }
+        this.capacity = capacity;
+        this.tupleLength = tupleLength;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.tuples = new int[capacity * tupleLength];
+        this.slotsByKey = new LongLongHashMap(capacity);
+        this.heap = new int[capacity];
+        this.heapPositions = new int[capacity];
+    }
+
+    public SpaceSaving(int capacity) {
+        this(capacity, 0);
+    }
+
+    // Zählt den Schlüssel count-mal.
+    public void add(long key, long count) {
+        add(key, count, null, 0);
+    }
+
+    // Zählt den Schlüssel count-mal; source[offset, offset + tupleLength) ist sein Tupel.
+    public void add(long key, long count, int[] source, int offset) {
+        totalCount += count;
+
+        int slot = (int) slotsByKey.getOrDefault(key, -1);
+        if (slot >= 0) {
+            counts[slot] += count;
+            siftDown(heapPositions[slot]);
+            return;
+        }
+
+        if (size < capacity) {
+            slot = size++;
+            heap[slot] = slot;
+            heapPositions[slot] = slot;
+            set(slot, key, count, 0L, source, offset);
+            siftUp(slot);
+            return;
+        }
+
+        // Verdrängt den kleinsten Eintrag; dessen Anzahl ist die größtmögliche Unterschätzung.
+        slot = heap[0];
+        long minimum = counts[slot];
+        slotsByKey.remove(keys[slot]);
+        set(slot, key, minimum + count, minimum, source, offset);
+        siftDown(0);
+    }
+
+    // Liefert die (überschätzte) Anzahl des Schlüssels oder 0, wenn er nicht verfolgt wird.
+    public long estimate(long key) {
+        int slot = (int) slotsByKey.getOrDefault(key, -1);
+        return slot >= 0 ? counts[slot] : 0L;
+    }
+
+    // Vereinigt die Zusammenfassung eines anderen Abschnitts mit dieser (mergeable summaries,
+    // Agarwal et al.): Ein Schlüssel, der in einer vollen Zusammenfassung fehlt, kann dort
+    // höchstens deren kleinste Anzahl gehabt haben; diese wird zu Anzahl und Fehler addiert.
+    // Danach werden die capacity größten Einträge behalten.
+    public void merge(SpaceSaving other) {
+        if (other.tupleLength != tupleLength) {
+            throw new IllegalArgumentException("Unterschiedliche Tupellängen: " + tupleLength + " und " + other.tupleLength);
+        }
+        long thisMissing = size == capacity ? counts[heap[0]] : 0L;
+        long otherMissing = other.size == other.capacity ? other.counts[other.heap[0]] : 0L;
+
+        // Alle Kandidaten sammeln (höchstens capacity + other.capacity).
+        int candidates = size + other.size;
+        long[] mergedKeys = new long[candidates];
+        long[] mergedCounts = new long[candidates];
+        long[] mergedErrors = new long[candidates];
+        int[] mergedTuples = new int[candidates * tupleLength];
+        int count = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int otherSlot = (int) other.slotsByKey.getOrDefault(keys[slot], -1);
+            mergedKeys[count] = keys[slot];
+            mergedCounts[count] = counts[slot] + (otherSlot >= 0 ? other.counts[otherSlot] : otherMissing);
+            mergedErrors[count] = errors[slot] + (otherSlot >= 0 ? other.errors[otherSlot] : otherMissing);
+            System.arraycopy(tuples, slot * tupleLength, mergedTuples, count * tupleLength, tupleLength);
+            count++;
+        }
+        for (int slot = 0; slot < other.size; slot++) {
+            if (!slotsByKey.containsKey(other.keys[slot])) {
+                mergedKeys[count] = other.keys[slot];
+                mergedCounts[count] = other.counts[slot] + thisMissing;
+                mergedErrors[count] = other.errors[slot] + thisMissing;
+                System.arraycopy(other.tuples, slot * tupleLength, mergedTuples, count * tupleLength, tupleLength);
+                count++;
+            }
+        }
+        // Neu aufbauen mit den capacity größten Kandidaten.
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(mergedCounts[b], mergedCounts[a]));
+
+        for (int slot = 0; slot < size; slot++) {
+            slotsByKey.remove(keys[slot]);
+        }
+        size = Math.min(capacity, count);
+        for (int slot = 0; slot < size; slot++) {
+            int candidate = order[slot];
+            set(slot, mergedKeys[candidate], mergedCounts[candidate], mergedErrors[candidate],
+                    mergedTuples, candidate * tupleLength);
+            // Absteigend sortiert: Ein Min-Heap entsteht durch umgekehrte Reihenfolge.
+            heap[size - 1 - slot] = slot;
+            heapPositions[slot] = size - 1 - slot;
+        }
+        totalCount += other.totalCount;
+    }
+
+    // Liefert die k häufigsten verfolgten Schlüssel, absteigend nach Anzahl.
+    public List<Entry> topK(int k) {
+        Integer[] slots = new Integer[size];
+        for (int slot = 0; slot < size; slot++) {
+            slots[slot] = slot;
+        }
+        Arrays.sort(slots, (a, b) -> Long.compare(counts[b], counts[a]));
+
+        List<Entry> result = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            int slot = slots[i];
+            int[] tuple = tupleLength > 0
+                    ? Arrays.copyOfRange(tuples, slot * tupleLength, slot * tupleLength + tupleLength)
+                    : null;
+            result.add(new Entry(keys[slot], counts[slot], errors[slot], tuple));
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Anzahl der aktuell verfolgten Schlüssel.
+    public int size() {
+        return size;
+    }
+
+    // Summe aller gezählten Häufigkeiten.
+    public long totalCount() {
+        return totalCount;
+    }
+
+    private void set(int slot, long key, long count, long error, int[] source, int offset) {
+        keys[slot] = key;
+        counts[slot] = count;
+        errors[slot] = error;
+        if (tupleLength > 0 && source != null) {
+            System.arraycopy(source, offset, tuples, slot * tupleLength, tupleLength);
+        }
+        slotsByKey.put(key, slot);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[position]] >= counts[heap[parent]]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int child = left + 1 < size && counts[heap[left + 1]] < counts[heap[left]] ? left + 1 : left;
+            if (counts[heap[child]] >= counts[heap[position]]) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int slot = heap[a];
+        heap[a] = heap[b];
+        heap[b] = slot;
+        heapPositions[heap[a]] = a;
+        heapPositions[heap[b]] = b;
+    }
+}
@@ -0,0 +1,6 @@
+// Skalarprodukt einer dünn besetzten Zeile (CSR: Spalten-IDs und Werte im Bereich [from, to))
+// mit einem dichten Vektor. WordVectors verwendet eine skalare Schleife; ist die Klasse
+// VectorSparseDot aus dem Profil vector vorhanden (Vector API), wird stattdessen sie verwendet.
+interface SparseDot {
+    float dot(float[] values, int[] columns, int from, int to, float[] dense);
+}
@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Tokenizer, der eine UTF-8-Textdatei per FileChannel in den Speicher abbildet (MemorySegment)
+// und direkt auf den Bytes arbeitet. Er liefert dieselben Tokens wie Main.produceTokensFromText,
+// also Folgen von [a-zäöüß] nach Kleinschreibung, benötigt dafür aber weder den Dateiinhalt
+// als String noch eine kleingeschriebene Kopie oder ein Pattern/MatchResult pro Wort.
+// Ungültige UTF-8-Sequenzen werden wie Trennzeichen behandelt.
+//
+// Verwendung:
+// try (StreamingTokenizer tokenizer = StreamingTokenizer.open(path)) {
+//     tokenizer.tokens().forEach(...);
+// }
+public class StreamingTokenizer implements AutoCloseable {
+    // Abschnitte unterhalb dieser Größe (in Bytes) werden nicht weiter aufgeteilt.
+    private static final long MIN_SPLIT_SIZE = 64 * 1024;
+    private static final char DOTTED_CAPITAL_I = '\u0130';
+
+    private final Arena arena;
+    private final MemorySegment segment;
+
+    private StreamingTokenizer(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+    }
+
+    // Bildet die Datei in den Speicher ab. Das Segment bleibt bis close() gültig.
+    public static StreamingTokenizer open(Path path) throws IOException {
+        // Shared Arena: Die Tokens dürfen auch von parallelen Streams gelesen werden.
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.size() == 0
+                    ? MemorySegment.NULL
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new StreamingTokenizer(arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    // Liefert einen Stream aller Tokens der Datei, der beim Schließen die Abbildung freigibt.
+    // param: path Pfad zur Textdatei.
+    // return: Ein Stream, der mit try-with-resources geschlossen werden sollte.
+    public static Stream<String> tokens(Path path) throws IOException {
+        StreamingTokenizer tokenizer = open(path);
+        return tokenizer.tokens().onClose(tokenizer::close);
+    }
+
+    // Liefert die Tokens als Stream. Der Stream kann parallel verarbeitet werden:
+    // Die Datei wird dafür nur an ASCII-Trennzeichen geteilt, nie innerhalb eines Wortes.
+    public Stream<String> tokens() {
+        return StreamSupport.stream(new TokenSpliterator(0, segment.byteSize()), false);
+    }
+
+    // Übergibt die ID jedes Tokens in Dateireihenfolge, ohne für bekannte Wörter Strings zu erzeugen.
+    public void forEachTokenId(Vocabulary vocabulary, IntConsumer action) {
+        Scanner scanner = new Scanner(0, segment.byteSize());
+        while (scanner.next()) {
+            action.accept(vocabulary.idOf(scanner.buffer, scanner.length));
+        }
+    }
+
+    // Kodiert die ganze Datei direkt in Token-IDs (siehe Vocabulary.encode).
+    public int[] tokenIds(Vocabulary vocabulary) {
+        int[][] ids = {new int[1024]};
+        int[] count = {0};
+        forEachTokenId(vocabulary, id -> {
+            if (count[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], ids[0].length << 1);
+            }
+            ids[0][count[0]++] = id;
+        });
+        return Arrays.copyOf(ids[0], count[0]);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // Durchläuft einen Byte-Bereich und dekodiert dabei UTF-8 Zeichen für Zeichen.
+    // Das aktuelle Token liegt kleingeschrieben in buffer[0, length).
+    private final class Scanner {
+        private long position;
+        private final long end;
+        private char[] buffer = new char[32];
+        private int length;
+
+        private Scanner(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        // Sucht das nächste Token.
+        // return: false, wenn der Bereich keine weiteren Tokens enthält.
+        private boolean next() {
+            length = 0;
+            while (position < end) {
+                long start = position;
+                char letter = decodeLetter();
+                if (letter == DOTTED_CAPITAL_I) {
+                    // toLowerCase macht aus 'İ' "i" + kombinierenden Punkt (kein Buchstabe),
+                    // daher endet das Token direkt nach dem 'i'.
+                    append('i');
+                    return true;
+                } else if (letter != 0) {
+                    append(letter);
+                } else if (length > 0) {
+                    // Das Trennzeichen gehört nicht zum Token und wird beim nächsten Aufruf erneut gelesen.
+                    position = start;
+                    return true;
+                }
+            }
+            return length > 0;
+        }
+
+        private void append(char letter) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length << 1);
+            }
+            buffer[length++] = letter;
+        }
+
+        // Liest ein Zeichen ab position und rückt position dahinter.
+        // return: Den kleingeschriebenen Buchstaben oder 0 für alle Zeichen außerhalb von [a-zäöüß].
+        private char decodeLetter() {
+            int b = byteAt(position++);
+
+            // 1 Byte: ASCII.
+            if (b < 0x80) {
+                if (b >= 'a' && b <= 'z') {
+                    return (char) b;
+                }
+                if (b >= 'A' && b <= 'Z') {
+                    return (char) (b + ('a' - 'A'));
+                }
+                return 0;
+            }
+
+            int continuationBytes = b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : b >= 0xC0 ? 1 : 0;
+            if (continuationBytes == 0) {
+                // Einzelnes Folgebyte ohne Startbyte.
+                return 0;
+            }
+
+            // Nur gültige Folgebytes werden verbraucht, damit ein abgeschnittenes Zeichen
+            // keinen nachfolgenden Buchstaben verschluckt.
+            int codePoint = b & (0x3F >> continuationBytes);
+            for (int i = 0; i < continuationBytes; i++) {
+                if (position >= end || (byteAt(position) & 0xC0) != 0x80) {
+                    return 0;
+                }
+                codePoint = (codePoint << 6) | (byteAt(position++) & 0x3F);
+            }
+
+            return switch (codePoint) {
+                case '\u00E4', '\u00C4' -> '\u00E4'; // ä, Ä
+                case '\u00F6', '\u00D6' -> '\u00F6'; // ö, Ö
+                case '\u00FC', '\u00DC' -> '\u00FC'; // ü, Ü
+                case '\u00DF', '\u1E9E' -> '\u00DF'; // ß, großes ẞ
+                // Das Kelvin-Zeichen wird von toLowerCase zu 'k', 'İ' siehe next().
+                case '\u212A' -> 'k';
+                case DOTTED_CAPITAL_I -> DOTTED_CAPITAL_I;
+                default -> 0;
+            };
+        }
+
+        private int byteAt(long offset) {
+            return segment.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
+        }
+    }
+
+    // Spliterator über einen Byte-Bereich der Datei.
+    private final class TokenSpliterator implements Spliterator<String> {
+        private final Scanner scanner;
+
+        private TokenSpliterator(long position, long end) {
+            this.scanner = new Scanner(position, end);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (!scanner.next()) {
+                return false;
+            }
+            action.accept(new String(scanner.buffer, 0, scanner.length));
+            return true;
+        }
+
+        // Teilt den Bereich an einem ASCII-Trennzeichen nahe der Mitte.
+        // ASCII-Bytes kommen in UTF-8 nie innerhalb eines Mehrbyte-Zeichens vor.
+        @Override
+        public Spliterator<String> trySplit() {
+            long position = scanner.position;
+            long end = scanner.end;
+            if (end - position < MIN_SPLIT_SIZE) {
+                return null;
+            }
+
+            long middle = position + (end - position) / 2;
+            while (middle < end && !isAsciiSeparator(segment.get(ValueLayout.JAVA_BYTE, middle))) {
+                middle++;
+            }
+            if (middle >= end) {
+                return null;
+            }
+
+            TokenSpliterator prefix = new TokenSpliterator(position, middle);
+            scanner.position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // Grobe Schätzung: etwa ein Token pro sechs Bytes.
+            return (scanner.end - scanner.position) / 6;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        private static boolean isAsciiSeparator(byte b) {
+            return b >= 0 && !(b >= 'a' && b <= 'z') && !(b >= 'A' && b <= 'Z');
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+// Wählt die k größten Elemente eines Streams aus, ohne den ganzen Stream zu sortieren.
+// Der Zustand ist ein Min-Heap der Größe k: Jedes neue Element wird nur mit dem kleinsten
+// bisher behaltenen verglichen, das kostet O(m log k) statt O(m log m) für m Elemente.
+// Am Ende werden die k Elemente absteigend sortiert ausgegeben.
+// Der Combiner vereinigt die Heaps paralleler Abschnitte.
+//
+// Beispiel: row.entrySet().stream().gather(new TopKGatherer<>(5, Map.Entry.comparingByValue()))
+public class TopKGatherer<T> implements Gatherer<T, PriorityQueue<T>, T> {
+    private final int k;
+    private final Comparator<? super T> comparator;
+
+    // param: k Anzahl der auszugebenden Elemente (0 ergibt einen leeren Stream).
+    // param: comparator Bestimmt die Rangfolge; die größten Elemente werden ausgegeben.
+    public TopKGatherer(int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k darf nicht negativ sein: " + k);
+        }
+        this.k = k;
+        this.comparator = comparator;
+    }
+
+    // Liefert den initialen Zustand (leerer Min-Heap).
+    @Override
+    public Supplier<PriorityQueue<T>> initializer() {
+        return () -> new PriorityQueue<>(Math.max(1, k), comparator);
+    }
+
+    // Behält ein Element nur, wenn der Heap noch nicht voll ist oder es das kleinste übertrifft.
+    @Override
+    public Integrator<PriorityQueue<T>, T, T> integrator() {
+        return Integrator.ofGreedy((heap, element, _) -> {
+            offer(heap, element);
+            return true;
+        });
+    }
+
+    // Fügt die Heaps zweier Abschnitte zusammen (der kleinere wird in den größeren übernommen).
+    @Override
+    public BinaryOperator<PriorityQueue<T>> combiner() {
+        return (left, right) -> {
+            PriorityQueue<T> target = left.size() >= right.size() ? left : right;
+            PriorityQueue<T> source = target == left ? right : left;
+            for (T element : source) {
+                offer(target, element);
+            }
+            return target;
+        };
+    }
+
+    // Gibt die behaltenen Elemente absteigend sortiert aus.
+    @Override
+    public BiConsumer<PriorityQueue<T>, Downstream<? super T>> finisher() {
+        return (heap, downstream) -> {
+            @SuppressWarnings("unchecked")
+            T[] sorted = (T[]) new Object[heap.size()];
+            // Der Min-Heap liefert aufsteigend, daher wird das Array von hinten gefüllt.
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = heap.poll();
+            }
+            for (T element : sorted) {
+                if (!downstream.push(element)) {
+                    break;
+                }
+            }
+        };
+    }
+
+    private void offer(PriorityQueue<T> heap, T element) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (k > 0 && comparator.compare(element, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+}
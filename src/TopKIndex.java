@@ -0,0 +1,178 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Vorberechnete Top-K-Nachbarn für alle Zentrumswörter einer CooccurrenceMatrix.
+// Alle Zeilen werden in einem parallelen Durchlauf mit einem primitiven Min-Heap ausgewertet
+// und anschließend kompakt gespeichert (CSR-Layout: Zeilen-Offsets plus zusammenhängende
+// Arrays für Nachbar-IDs und Anzahlen). Eine Abfrage ist danach ein Array-Zugriff statt
+// einer Sortierung der ganzen Zeile.
+// Innerhalb einer Zeile sind die Nachbarn absteigend nach Anzahl sortiert,
+// bei Gleichstand aufsteigend nach ID.
+public class TopKIndex {
+    private final int k;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final long[] counts;
+
+    private TopKIndex(int k, int[] offsets, int[] neighbors, long[] counts) {
+        this.k = k;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.counts = counts;
+    }
+
+    // Berechnet die Top-K-Nachbarn aller Zentrumswörter parallel.
+    // param: matrix Die Kookkurrenz-Matrix (wird nur gelesen).
+    // param: k Anzahl der Nachbarn pro Zentrumswort; kleinere Abfragen nutzen den Anfang der Zeile.
+    public static TopKIndex build(CooccurrenceMatrix matrix, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k darf nicht negativ sein: " + k);
+        }
+
+        int rows = matrix.rowCapacity();
+        int[][] rowNeighbors = new int[rows][];
+        long[][] rowCounts = new long[rows][];
+
+        // Jede Zeile wird unabhängig ausgewertet und schreibt nur in ihre eigenen Array-Plätze.
+        IntStream.range(0, rows).parallel().forEach(center -> {
+            IntLongHashMap row = matrix.row(center);
+            if (row != null) {
+                MinHeap heap = new MinHeap(Math.min(k, row.size()));
+                row.forEach(heap::offer);
+                rowNeighbors[center] = new int[heap.size];
+                rowCounts[center] = new long[heap.size];
+                heap.drainDescending(rowNeighbors[center], rowCounts[center]);
+            }
+        });
+
+        // Zusammenfassen in das CSR-Layout.
+        int[] offsets = new int[rows + 1];
+        for (int center = 0; center < rows; center++) {
+            offsets[center + 1] = offsets[center] + (rowNeighbors[center] != null ? rowNeighbors[center].length : 0);
+        }
+        int[] neighbors = new int[offsets[rows]];
+        long[] counts = new long[offsets[rows]];
+        for (int center = 0; center < rows; center++) {
+            if (rowNeighbors[center] != null) {
+                System.arraycopy(rowNeighbors[center], 0, neighbors, offsets[center], rowNeighbors[center].length);
+                System.arraycopy(rowCounts[center], 0, counts, offsets[center], rowCounts[center].length);
+            }
+        }
+        return new TopKIndex(k, offsets, neighbors, counts);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    // Anzahl der gespeicherten Nachbarn des Zentrumswortes (höchstens k).
+    public int size(int center) {
+        return center >= 0 && center < offsets.length - 1 ? offsets[center + 1] - offsets[center] : 0;
+    }
+
+    // Die Nachbar-ID an Rang rank (0 = häufigster Nachbar).
+    public int neighbor(int center, int rank) {
+        return neighbors[offsets[center] + rank];
+    }
+
+    // Die Anzahl an Rang rank.
+    public long count(int center, int rank) {
+        return counts[offsets[center] + rank];
+    }
+
+    // Liefert die k häufigsten Nachbarn eines Wortes in absteigender Reihenfolge
+    // (gleiche Form wie Main.findTopKCooccurrences).
+    // param: k Anzahl der gewünschten Nachbarn, höchstens k() des Index.
+    public Map<String, Long> topK(String word, int k, Vocabulary vocabulary) {
+        if (k > this.k) {
+            throw new IllegalArgumentException("Der Index enthält nur die Top-" + this.k + ", angefragt: " + k);
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        int center = vocabulary.getId(word.toLowerCase());
+        int size = Math.min(k, size(center));
+        for (int rank = 0; rank < size; rank++) {
+            result.put(vocabulary.wordOf(neighbor(center, rank)), count(center, rank));
+        }
+        return result;
+    }
+
+    // Min-Heap fester Größe über (Nachbar-ID, Anzahl) in parallelen primitiven Arrays.
+    // Die Wurzel ist der "schlechteste" behaltene Eintrag: kleinste Anzahl, bei Gleichstand größte ID.
+    private static final class MinHeap {
+        private final int[] ids;
+        private final long[] counts;
+        private int size;
+
+        private MinHeap(int capacity) {
+            ids = new int[capacity];
+            counts = new long[capacity];
+        }
+
+        private void offer(int id, long count) {
+            if (size < ids.length) {
+                ids[size] = id;
+                counts[size] = count;
+                siftUp(size++);
+            } else if (size > 0 && worse(ids[0], counts[0], id, count)) {
+                ids[0] = id;
+                counts[0] = count;
+                siftDown(0);
+            }
+        }
+
+        // Leert den Heap in absteigender Reihenfolge in die Zielarrays.
+        private void drainDescending(int[] targetIds, long[] targetCounts) {
+            for (int i = size - 1; i >= 0; i--) {
+                targetIds[i] = ids[0];
+                targetCounts[i] = counts[0];
+                size--;
+                ids[0] = ids[size];
+                counts[0] = counts[size];
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!worse(ids[index], counts[index], ids[parent], counts[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int child = left + 1 < size && worse(ids[left + 1], counts[left + 1], ids[left], counts[left])
+                        ? left + 1 : left;
+                if (!worse(ids[child], counts[child], ids[index], counts[index])) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+
+        // true, wenn (idA, countA) in der Rangfolge hinter (idB, countB) liegt.
+        private static boolean worse(int idA, long countA, int idB, long countB) {
+            return countA < countB || (countA == countB && idA > idB);
+        }
+    }
+}
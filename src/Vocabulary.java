@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Bidirektionales Wörterbuch Wort <-> Token-ID.
+// Jedes neue Wort erhält die nächste freie ID (0, 1, 2, ...), sodass ein Korpus
+// als kompaktes int[] dargestellt und später wieder dekodiert werden kann.
+// Die Zuordnung Wort -> ID ist eine eigene Hash-Tabelle mit offener Adressierung,
+// damit Tokenizer Wörter direkt aus einem char[]-Puffer nachschlagen können,
+// ohne für bereits bekannte Wörter einen String zu erzeugen.
+public class Vocabulary {
+    // Wird von getId zurückgegeben, wenn ein Wort nicht im Wörterbuch steht.
+    public static final int UNKNOWN = -1;
+
+    private final List<String> wordsById = new ArrayList<>();
+    // Hash-Tabelle: Jeder Platz enthält eine ID oder UNKNOWN (frei).
+    private int[] slots = newSlots(64);
+
+    // Liefert die ID des Wortes und legt sie bei Bedarf neu an (Interning).
+    public int idOf(String word) {
+        int slot = findSlot(word);
+        int id = slots[slot];
+        return id != UNKNOWN ? id : add(slot, word);
+    }
+
+    // Wie idOf(String), aber für die ersten length Zeichen eines Puffers.
+    // Ein String wird nur für neue Wörter erzeugt.
+    public int idOf(char[] chars, int length) {
+        int slot = findSlot(chars, length);
+        int id = slots[slot];
+        return id != UNKNOWN ? id : add(slot, new String(chars, 0, length));
+    }
+
+    // Liefert die ID des Wortes oder UNKNOWN, ohne das Wörterbuch zu verändern.
+    public int getId(String word) {
+        return slots[findSlot(word)];
+    }
+
+    // Liefert das Wort zur ID.
+    public String wordOf(int id) {
+        return wordsById.get(id);
+    }
+
+    // Anzahl der unterschiedlichen Wörter.
+    public int size() {
+        return wordsById.size();
+    }
+
+    // Übernimmt alle Wörter eines anderen Vocabulary in dieses.
+    // return: Eine Übersetzungstabelle, die jede ID von other auf die ID in diesem Vocabulary abbildet.
+    public int[] mergeFrom(Vocabulary other) {
+        int[] mapping = new int[other.size()];
+        for (int id = 0; id < mapping.length; id++) {
+            mapping[id] = idOf(other.wordOf(id));
+        }
+        return mapping;
+    }
+
+    // Kodiert eine Token-Liste in ein int[] von Token-IDs.
+    // param: tokens Die Liste der Eingabetokens.
+    // return: Ein Array, in dem jedes Token durch seine ID ersetzt ist.
+    public int[] encode(List<String> tokens) {
+        int[] ids = new int[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            ids[i++] = idOf(token);
+        }
+        return ids;
+    }
+
+    // Dekodiert ein int[] von Token-IDs zurück in eine Token-Liste.
+    public List<String> decode(int[] ids) {
+        return Arrays.stream(ids)
+                .mapToObj(this::wordOf)
+                .toList();
+    }
+
+    // Verbindet die Wörter eines ID-n-Gramms mit Leerzeichen (wie String.join(" ", ...)).
+    public String decodeNGram(int[] nGram) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < nGram.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(wordOf(nGram[i]));
+        }
+        return sb.toString();
+    }
+
+    private int add(int slot, String word) {
+        int id = wordsById.size();
+        wordsById.add(word);
+        slots[slot] = id;
+
+        // Füllgrad von höchstens 50 %, damit die Sondierungsketten kurz bleiben.
+        if (wordsById.size() * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private int findSlot(String word) {
+        int mask = slots.length - 1;
+        int slot = mix(word.hashCode()) & mask;
+        int id;
+        while ((id = slots[slot]) != UNKNOWN && !wordsById.get(id).equals(word)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int findSlot(char[] chars, int length) {
+        // Gleiche Hash-Funktion wie String.hashCode, damit beide Suchwege dieselben Plätze treffen.
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        int id;
+        while ((id = slots[slot]) != UNKNOWN && !matches(wordsById.get(id), chars, length)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = newSlots(slots.length << 1);
+        for (int id = 0; id < wordsById.size(); id++) {
+            slots[findSlot(wordsById.get(id))] = id;
+        }
+    }
+
+    private static boolean matches(String word, char[] chars, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, UNKNOWN);
+        return slots;
+    }
+}
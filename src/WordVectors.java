@@ -0,0 +1,315 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Wortvektoren aus Kookkurrenzen und eine Ähnlichkeitssuche über das ganze Vokabular.
+// Jedes Wort ist eine Zeile der (gewichteten) Kookkurrenz-Matrix; die Spalten sind Kontextwörter.
+// Da die Dimension der Vokabulargröße entspricht und die meisten Einträge 0 sind, liegen die
+// Vektoren dünn besetzt im CSR-Layout (wie TopKIndex): Zeilen-Offsets plus zusammenhängende
+// Arrays für Spalten (aufsteigend) und float-Werte. Jede Zeile ist auf Länge 1 normiert,
+// die Kosinus-Ähnlichkeit ist also ein Skalarprodukt.
+//
+// Gewichtungen (siehe Weighting):
+// - COUNTS:        rohe Anzahlen wie in CooccurrenceMatrix
+// - DISTANCE:      Nachbarn im Abstand d zählen 1/d statt 1 (als Festkommazahl, siehe unten)
+// - PPMI:          positive Pointwise Mutual Information mit geglätteter Kontextverteilung
+//                  (Exponent 0.75, Levy et al. 2015)
+// - DISTANCE_PPMI: PPMI über den abstandsgewichteten Anzahlen
+//
+// mostSimilar schreibt den Anfragevektor einmal dicht in ein Array und berechnet dann für alle
+// Zeilen parallel das Skalarprodukt (SparseDot). Ohne weitere Angaben ist das eine skalare
+// Schleife; mit dem Maven-Profil vector und java --add-modules jdk.incubator.vector wird die
+// SIMD-Variante VectorSparseDot (Vector API, Gather + FMA) verwendet.
+public class WordVectors {
+    private static final SparseDot DOT = loadDot();
+    // Festkomma-Skala der Abstandsgewichte: Abstand d zählt round(DISTANCE_SCALE / d).
+    private static final long DISTANCE_SCALE = 1L << 20;
+    // Exponent der Glättung der Kontextverteilung für PPMI.
+    private static final double CONTEXT_SMOOTHING = 0.75;
+
+    private final int[] offsets;
+    private final int[] columns;
+    private final float[] values;
+    private final int dimension;
+
+    public enum Weighting {
+        COUNTS, DISTANCE, PPMI, DISTANCE_PPMI
+    }
+
+    // Ein ähnliches Wort: ID und Kosinus-Ähnlichkeit.
+    public record Neighbor(int id, float similarity) {
+    }
+
+    private WordVectors(int[] offsets, int[] columns, float[] values, int dimension) {
+        this.offsets = offsets;
+        this.columns = columns;
+        this.values = values;
+        this.dimension = dimension;
+    }
+
+    // Zählt die Kookkurrenzen des ID-kodierten Korpus und berechnet daraus die Vektoren.
+    public static WordVectors build(int[] ids, int window, Weighting weighting) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window muss mindestens 1 sein: " + window);
+        }
+        boolean distance = weighting == Weighting.DISTANCE || weighting == Weighting.DISTANCE_PPMI;
+        CooccurrenceMatrix matrix = distance ? distanceWeightedCounts(ids, window) : countsOf(ids, window);
+        boolean ppmi = weighting == Weighting.PPMI || weighting == Weighting.DISTANCE_PPMI;
+        return fromMatrix(matrix, ppmi);
+    }
+
+    // Berechnet die Vektoren aus einer vorhandenen Matrix (rohe Anzahlen oder PPMI).
+    public static WordVectors fromMatrix(CooccurrenceMatrix matrix, boolean ppmi) {
+        int rows = matrix.rowCapacity();
+        long[] rowSums = new long[rows];
+        double[] contextWeights = null;
+        double contextTotal = 0;
+
+        // Zeilen- und Spaltensummen für PPMI; die Dimension ist die größte Spalten-ID + 1.
+        long[][] columnSums = {new long[rows]};
+        int[] maxColumn = {rows - 1};
+        matrix.forEach((center, neighbor, count) -> {
+            rowSums[center] += count;
+            if (neighbor >= columnSums[0].length) {
+                columnSums[0] = Arrays.copyOf(columnSums[0], Math.max(neighbor + 1, columnSums[0].length << 1));
+            }
+            columnSums[0][neighbor] += count;
+            maxColumn[0] = Math.max(maxColumn[0], neighbor);
+        });
+        int dimension = maxColumn[0] + 1;
+        if (ppmi) {
+            contextWeights = new double[columnSums[0].length];
+            for (int c = 0; c < contextWeights.length; c++) {
+                contextWeights[c] = Math.pow(columnSums[0][c], CONTEXT_SMOOTHING);
+                contextTotal += contextWeights[c];
+            }
+        }
+
+        // Jede Zeile wird unabhängig gewichtet, sortiert und normiert (wie in TopKIndex.build).
+        int[][] rowColumns = new int[rows][];
+        float[][] rowValues = new float[rows][];
+        double[] weights = contextWeights;
+        double weightTotal = contextTotal;
+        IntStream.range(0, rows).parallel().forEach(center -> {
+            IntLongHashMap row = matrix.row(center);
+            if (row == null || row.isEmpty()) {
+                return;
+            }
+            int[] neighbors = new int[row.size()];
+            int[] size = {0};
+            row.forEach((neighbor, _) -> neighbors[size[0]++] = neighbor);
+            Arrays.sort(neighbors);
+
+            int[] kept = new int[neighbors.length];
+            float[] weighted = new float[neighbors.length];
+            int count = 0;
+            double norm = 0;
+            for (int neighbor : neighbors) {
+                double value = row.get(neighbor);
+                if (weights != null) {
+                    // PMI = log(P(w, c) / (P(w) * P_alpha(c))); nur positive Werte bleiben.
+                    value = Math.log(value * weightTotal / (rowSums[center] * weights[neighbor]));
+                }
+                if (value > 0) {
+                    kept[count] = neighbor;
+                    weighted[count] = (float) value;
+                    norm += value * value;
+                    count++;
+                }
+            }
+            float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+            for (int i = 0; i < count; i++) {
+                weighted[i] *= scale;
+            }
+            rowColumns[center] = Arrays.copyOf(kept, count);
+            rowValues[center] = Arrays.copyOf(weighted, count);
+        });
+
+        int[] offsets = new int[rows + 1];
+        for (int center = 0; center < rows; center++) {
+            offsets[center + 1] = offsets[center] + (rowColumns[center] != null ? rowColumns[center].length : 0);
+        }
+        int[] columns = new int[offsets[rows]];
+        float[] values = new float[offsets[rows]];
+        for (int center = 0; center < rows; center++) {
+            if (rowColumns[center] != null) {
+                System.arraycopy(rowColumns[center], 0, columns, offsets[center], rowColumns[center].length);
+                System.arraycopy(rowValues[center], 0, values, offsets[center], rowValues[center].length);
+            }
+        }
+        return new WordVectors(offsets, columns, values, dimension);
+    }
+
+    // Die k ähnlichsten Wörter (ohne das Wort selbst), absteigend nach Kosinus-Ähnlichkeit,
+    // bei Gleichstand aufsteigend nach ID. Wörter ohne Vektor haben keine Nachbarn.
+    public List<Neighbor> mostSimilar(int id, int k) {
+        if (id < 0 || id >= size() || offsets[id] == offsets[id + 1] || k <= 0) {
+            return List.of();
+        }
+
+        // Anfragevektor einmal dicht ausbreiten; die Zeilen greifen per Gather darauf zu.
+        float[] query = new float[dimension];
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            query[columns[i]] = values[i];
+        }
+        float[] scores = new float[size()];
+        IntStream.range(0, size()).parallel()
+                .forEach(row -> scores[row] = DOT.dot(values, columns, offsets[row], offsets[row + 1], query));
+        scores[id] = Float.NEGATIVE_INFINITY;
+        return topK(scores, k);
+    }
+
+    // String-Variante von mostSimilar in der Form von Main.findTopKCooccurrences.
+    public Map<String, Double> mostSimilar(String word, int k, Vocabulary vocabulary) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Neighbor neighbor : mostSimilar(vocabulary.getId(word.toLowerCase()), k)) {
+            result.put(vocabulary.wordOf(neighbor.id()), (double) neighbor.similarity());
+        }
+        return result;
+    }
+
+    // Kosinus-Ähnlichkeit zweier Wörter (0, wenn eines keinen Vektor hat).
+    // Beide Spaltenlisten sind sortiert und werden wie beim Mischen gemeinsam durchlaufen.
+    public float similarity(int a, int b) {
+        if (a < 0 || b < 0 || a >= size() || b >= size()) {
+            return 0f;
+        }
+        int i = offsets[a];
+        int j = offsets[b];
+        float sum = 0f;
+        while (i < offsets[a + 1] && j < offsets[b + 1]) {
+            if (columns[i] < columns[j]) {
+                i++;
+            } else if (columns[i] > columns[j]) {
+                j++;
+            } else {
+                sum += values[i++] * values[j++];
+            }
+        }
+        return sum;
+    }
+
+    public double similarity(String a, String b, Vocabulary vocabulary) {
+        return similarity(vocabulary.getId(a.toLowerCase()), vocabulary.getId(b.toLowerCase()));
+    }
+
+    // Anzahl der Zeilen (Wörter).
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    // Anzahl der Einträge ungleich 0 über alle Zeilen.
+    public int nonZeroCount() {
+        return columns.length;
+    }
+
+    // Skalarprodukt einer CSR-Zeile mit einem dichten Vektor (skalare Variante von SparseDot).
+    private static float scalarDot(float[] values, int[] columns, int from, int to, float[] dense) {
+        float result = 0f;
+        for (int i = from; i < to; i++) {
+            result += values[i] * dense[columns[i]];
+        }
+        return result;
+    }
+
+    // Verwendet VectorSparseDot, wenn die Klasse vorhanden und die Vector API verfügbar ist.
+    private static SparseDot loadDot() {
+        try {
+            return (SparseDot) Class.forName("VectorSparseDot").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return WordVectors::scalarDot;
+        }
+    }
+
+    // Wählt die k größten Werte mit einem primitiven Min-Heap (ohne Boxing) aus.
+    private static List<Neighbor> topK(float[] scores, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int id = 0; id < scores.length; id++) {
+            if (scores[id] <= 0f) {
+                continue;
+            }
+            if (size < k) {
+                heap[size] = id;
+                siftUp(heap, size++, scores);
+            } else if (better(id, heap[0], scores)) {
+                heap[0] = id;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Neighbor(heap[i], scores[heap[i]]));
+        }
+        result.sort((x, y) -> better(x.id(), y.id(), scores) ? -1 : 1);
+        return result;
+    }
+
+    // Höhere Ähnlichkeit zuerst, bei Gleichstand die kleinere ID.
+    private static boolean better(int a, int b, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int position, float[] scores) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!better(heap[parent], heap[position], scores)) {
+                return;
+            }
+            swap(heap, position, parent);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int position = 0;
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int child = left + 1 < size && better(heap[left], heap[left + 1], scores) ? left + 1 : left;
+            if (!better(heap[position], heap[child], scores)) {
+                return;
+            }
+            swap(heap, position, child);
+            position = child;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static CooccurrenceMatrix countsOf(int[] ids, int window) {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.addWindowCounts(ids, window);
+        return matrix;
+    }
+
+    // Zählt Nachbarn im Abstand d mit dem Gewicht 1/d. Damit die Anzahlen ganzzahlig bleiben,
+    // ist jedes Gewicht eine Festkommazahl round(2^20 / d); Kosinus und PMI ändern sich durch den
+    // gemeinsamen Faktor nicht, der Rundungsfehler liegt unter d / 2^21 (0,05 % bei d = 1000).
+    // Eine Anzahl läuft erst nach etwa 2^43 Vorkommen eines Paares über.
+    private static CooccurrenceMatrix distanceWeightedCounts(int[] ids, int window) {
+        long[] weights = new long[window + 1];
+        for (int d = 1; d <= window; d++) {
+            weights[d] = Math.round((double) DISTANCE_SCALE / d);
+        }
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        for (int i = 0; i < ids.length; i++) {
+            matrix.ensureRow(ids[i]);
+            for (int d = 1; d <= window && i + d < ids.length; d++) {
+                matrix.add(ids[i], ids[i + d], weights[d]);
+                matrix.add(ids[i + d], ids[i], weights[d]);
+            }
+        }
+        return matrix;
+    }
+}
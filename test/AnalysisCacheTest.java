@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisCacheTest {
+    private static final AnalysisCache.Key KEY = new AnalysisCache.Key("abc", AnalysisCache.NGRAM_COUNTS, 2);
+    private static final Map<String, Long> VALUE = Map.of("see meer", 3L, "meer see", 1L);
+
+    @TempDir
+    Path directory;
+
+    // Gleichzeitige Anfragen desselben Schlüssels berechnen das Ergebnis nur einmal.
+    @Test
+    void concurrentRequestsShareOneComputation() throws Exception {
+        AnalysisCache cache = new AnalysisCache(1L << 20, directory);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<Map<String, Long>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.getOrCompute(KEY, AnalysisCache.COUNTS, () -> {
+                    computations.incrementAndGet();
+                    started.countDown();
+                    try {
+                        assertTrue(release.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    return VALUE;
+                })));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // Den anderen Threads Zeit geben, sich an die laufende Berechnung zu hängen.
+            Thread.sleep(200);
+            release.countDown();
+
+            Map<String, Long> first = results.getFirst().get();
+            for (Future<Map<String, Long>> result : results) {
+                assertSame(first, result.get());
+            }
+        }
+
+        assertEquals(1, computations.get());
+        AnalysisCache.Stats stats = cache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(threads - 1, stats.sharedComputations() + stats.memoryHits());
+        assertEquals(VALUE, cached(cache));
+    }
+
+    // Ein Fehler der Berechnung wird nicht gespeichert; die nächste Anfrage berechnet erneut.
+    @Test
+    void failedComputationIsNotCached() throws Exception {
+        AnalysisCache cache = new AnalysisCache(1L << 20, directory);
+        assertThrows(IOException.class, () -> cache.getOrCompute(KEY, AnalysisCache.COUNTS, () -> {
+            throw new IOException("simuliert");
+        }));
+        assertEquals(VALUE, cached(cache));
+        assertEquals(2, cache.stats().misses());
+    }
+
+    // Eine beschädigte Datei der Plattenstufe wird gelöscht und das Ergebnis neu berechnet.
+    @Test
+    void corruptFileIsDeletedAndRecomputed() throws Exception {
+        new AnalysisCache(1L << 20, directory).getOrCompute(KEY, AnalysisCache.COUNTS, () -> VALUE);
+        Path file = onlyFile();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        AnalysisCache cache = new AnalysisCache(1L << 20, directory);
+        AtomicInteger computations = new AtomicInteger();
+        assertEquals(VALUE, cache.getOrCompute(KEY, AnalysisCache.COUNTS, () -> {
+            computations.incrementAndGet();
+            return VALUE;
+        }));
+        assertEquals(1, computations.get());
+        assertEquals(0, cache.stats().diskHits());
+
+        // Die neu geschriebene Datei ist wieder gültig.
+        AnalysisCache reopened = new AnalysisCache(1L << 20, directory);
+        assertEquals(VALUE, reopened.getOrCompute(KEY, AnalysisCache.COUNTS, () -> {
+            throw new AssertionError("sollte von der Platte kommen");
+        }));
+        assertEquals(1, reopened.stats().diskHits());
+    }
+
+    // Schlägt das Schreiben auf die Platte fehl, wird das berechnete Ergebnis trotzdem geliefert.
+    @Test
+    void storeFailureStillReturnsValue() throws Exception {
+        new AnalysisCache(1L << 20, directory).getOrCompute(KEY, AnalysisCache.COUNTS, () -> VALUE);
+        // Ein nicht leeres Verzeichnis an Stelle der Datei: weder lesbar noch ersetzbar.
+        Path file = onlyFile();
+        Files.delete(file);
+        Files.createDirectories(file.resolve("blockiert"));
+
+        AnalysisCache cache = new AnalysisCache(1L << 20, directory);
+        assertEquals(VALUE, cache.getOrCompute(KEY, AnalysisCache.COUNTS, () -> VALUE));
+        assertEquals(1, cache.stats().storeFailures());
+        assertEquals(VALUE, cached(cache));
+        assertEquals(1, cache.stats().memoryHits());
+    }
+
+    @Test
+    void fileResultsAreKeyedByContent() throws Exception {
+        Path text = directory.resolve("text.txt");
+        Files.writeString(text, "Die See und das Meer. Die See!");
+        AnalysisCache cache = new AnalysisCache(1L << 20, directory.resolve("cache"));
+
+        Map<String, Long> counts = cache.nGramCounts(text, 2);
+        assertEquals(Main.countNGrams(2, Main.produceTokensFromFile(text.toString())), counts);
+        assertSame(counts, cache.nGramCounts(text, 2));
+
+        Files.writeString(text, "Ganz anderer Text.");
+        Files.setLastModifiedTime(text, FileTime.fromMillis(0));
+        assertEquals(Main.countNGrams(2, Main.produceTokensFromFile(text.toString())), cache.nGramCounts(text, 2));
+    }
+
+    private static Map<String, Long> cached(AnalysisCache cache) throws IOException {
+        return cache.getOrCompute(KEY, AnalysisCache.COUNTS, () -> VALUE);
+    }
+
+    private Path onlyFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> list = files.toList();
+            assertEquals(1, list.size());
+            return list.getFirst();
+        }
+    }
+}
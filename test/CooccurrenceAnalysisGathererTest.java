@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Gatherer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CooccurrenceAnalysisGathererTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+    private static final int[] WINDOWS = {1, 2, 3, 5, 8};
+
+    @Test
+    void parallelStreamMatchesSequentialRun() {
+        Random random = new Random(11);
+        for (int length : new int[]{1, 2, 7, 50, 5_000}) {
+            List<String> tokens = randomTokens(random, length);
+            for (int window : WINDOWS) {
+                // Die Referenz liefert für window > Anzahl der Tokens ein leeres Ergebnis.
+                if (window > tokens.size()) {
+                    continue;
+                }
+                Map<String, Map<String, Long>> expected = Main.performCooccurrenceAnalysisWithoutGatherer(window, tokens);
+                assertEquals(expected, tokens.parallelStream()
+                        .gather(new CooccurrenceAnalysisGatherer(window))
+                        .findFirst()
+                        .orElseThrow(), "window=" + window + ", length=" + length);
+                assertEquals(expected, tokens.stream()
+                        .gather(new CooccurrenceAnalysisGatherer(window))
+                        .findFirst()
+                        .orElseThrow(), "window=" + window + ", length=" + length);
+            }
+        }
+    }
+
+    // Wie ein paralleler Stream, aber mit festen Abschnittsgrößen: Abschnitte kürzer als window
+    // und als 2 * window, links gefaltet und als Baum zusammengefügt.
+    @Test
+    void combinerJoinsPairsAcrossChunkBorders() {
+        List<String> tokens = randomTokens(new Random(12), 300);
+        for (int window : WINDOWS) {
+            Map<String, Map<String, Long>> expected = Main.performCooccurrenceAnalysisWithoutGatherer(window, tokens);
+            for (int chunkSize : chunkSizes(window)) {
+                for (boolean tree : new boolean[]{false, true}) {
+                    assertEquals(expected, gatherInChunks(new CooccurrenceAnalysisGatherer(window), tokens, chunkSize, tree),
+                            "window=" + window + ", chunkSize=" + chunkSize + ", tree=" + tree);
+                }
+            }
+        }
+    }
+
+    @Test
+    void idVariantJoinsPairsAcrossChunkBorders() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(13), 300));
+        List<Integer> boxed = Arrays.stream(ids).boxed().toList();
+        for (int window : WINDOWS) {
+            Map<String, Map<String, Long>> expected =
+                    Main.performCooccurrenceAnalysisWithoutGatherer(window, ids).toMap(vocabulary);
+            assertEquals(expected, Main.performCooccurrenceAnalysisWithGatherer(window, ids).toMap(vocabulary));
+            for (int chunkSize : chunkSizes(window)) {
+                for (boolean tree : new boolean[]{false, true}) {
+                    assertEquals(expected, gatherInChunks(CooccurrenceAnalysisGatherer.ofIds(window), boxed, chunkSize, tree)
+                                    .toMap(vocabulary),
+                            "window=" + window + ", chunkSize=" + chunkSize + ", tree=" + tree);
+                }
+            }
+        }
+    }
+
+    private static int[] chunkSizes(int window) {
+        return new int[]{1, 2, window, 2 * window - 1, 2 * window, 2 * window + 1, 17};
+    }
+
+    // Führt den Gatherer auf Abschnitten der Größe chunkSize aus und fügt die Zustände per Combiner zusammen.
+    private static <T, A, R> R gatherInChunks(Gatherer<T, A, R> gatherer, List<T> elements, int chunkSize, boolean tree) {
+        List<A> states = new ArrayList<>();
+        for (int from = 0; from < elements.size(); from += chunkSize) {
+            A state = gatherer.initializer().get();
+            for (T element : elements.subList(from, Math.min(elements.size(), from + chunkSize))) {
+                gatherer.integrator().integrate(state, element, _ -> true);
+            }
+            states.add(state);
+        }
+        A state = tree ? combineTree(gatherer, states, 0, states.size()) : states.stream()
+                .reduce(gatherer.combiner())
+                .orElseThrow();
+
+        List<R> results = new ArrayList<>();
+        gatherer.finisher().accept(state, result -> {
+            results.add(result);
+            return true;
+        });
+        assertEquals(1, results.size());
+        return results.getFirst();
+    }
+
+    private static <T, A, R> A combineTree(Gatherer<T, A, R> gatherer, List<A> states, int from, int to) {
+        if (to - from == 1) {
+            return states.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return gatherer.combiner().apply(combineTree(gatherer, states, from, middle), combineTree(gatherer, states, middle, to));
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CooccurrenceMatrixTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus");
+
+    @Test
+    void matchesStringImplementation() {
+        List<String> tokens = randomTokens(new Random(1), 2_000);
+        for (int window = 1; window <= 4; window++) {
+            Vocabulary vocabulary = new Vocabulary();
+            CooccurrenceMatrix matrix = Main.performCooccurrenceAnalysisWithoutGatherer(
+                    window, vocabulary.encode(tokens));
+            assertEquals(Main.performCooccurrenceAnalysisWithoutGatherer(window, tokens), matrix.toMap(vocabulary));
+        }
+    }
+
+    // Zwei Matrizen mit eigenen Vocabularies (unterschiedliche IDs für dieselben Wörter)
+    // ergeben nach mergeFrom + addAll(other, idMapping) dieselben Zähler wie eine gemeinsame.
+    @Test
+    void addAllWithIdMappingRemapsCentersAndNeighbors() {
+        Random random = new Random(2);
+        List<String> first = randomTokens(random, 500);
+        // Andere Reihenfolge des ersten Auftretens und ein Wort, das nur hier vorkommt.
+        List<String> second = new ArrayList<>(randomTokens(random, 500).reversed());
+        second.add("insel");
+
+        Vocabulary vocabulary = new Vocabulary();
+        CooccurrenceMatrix merged = new CooccurrenceMatrix();
+        merged.addWindowCounts(vocabulary.encode(first), 3);
+
+        Vocabulary otherVocabulary = new Vocabulary();
+        CooccurrenceMatrix other = new CooccurrenceMatrix();
+        other.addWindowCounts(otherVocabulary.encode(second), 3);
+        merged.addAll(other, vocabulary.mergeFrom(otherVocabulary));
+
+        Vocabulary expectedVocabulary = new Vocabulary();
+        CooccurrenceMatrix expected = new CooccurrenceMatrix();
+        expected.addWindowCounts(expectedVocabulary.encode(first), 3);
+        expected.addWindowCounts(expectedVocabulary.encode(second), 3);
+
+        assertEquals(expected.toMap(expectedVocabulary), merged.toMap(vocabulary));
+        assertEquals(expected.pairCount(), merged.pairCount());
+    }
+
+    @Test
+    void removeWindowCountsUndoesAddAndRejectsUnknownDocuments() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] first = vocabulary.encode(randomTokens(new Random(3), 300));
+        int[] second = vocabulary.encode(randomTokens(new Random(4), 300));
+
+        CooccurrenceMatrix expected = new CooccurrenceMatrix();
+        expected.addWindowCounts(first, 2);
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.addWindowCounts(first, 2);
+        matrix.addWindowCounts(second, 2);
+        matrix.removeWindowCounts(second, 2);
+        assertEquals(expected.toMap(vocabulary), matrix.toMap(vocabulary));
+
+        Map<String, Map<String, Long>> before = matrix.toMap(vocabulary);
+        int[] unknown = vocabulary.encode(List.of("see", "insel", "meer"));
+        assertThrows(IllegalStateException.class, () -> matrix.removeWindowCounts(unknown, 2));
+        assertEquals(before, matrix.toMap(vocabulary));
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
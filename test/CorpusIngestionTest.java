@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CorpusIngestionTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @TempDir
+    Path directory;
+
+    // Ein Worker, der an einem Error stirbt, darf Leser und Hauptthread nicht blockieren.
+    @Test
+    void workerErrorAbortsInsteadOfHanging() throws IOException {
+        writeFiles(50);
+        Error failure = new OutOfMemoryError("simuliert");
+        // Ein Worker und ein Platz in der Warteschlange: Ohne Abbruch würden alle Leser ewig warten.
+        CorpusIngestion ingestion = new CorpusIngestion(2, 2, 1, 1, file -> {
+            if (file.getFileName().toString().equals("f3.txt")) {
+                throw failure;
+            }
+        });
+
+        IllegalStateException e = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IllegalStateException.class, () -> ingestion.ingest(directory)));
+        assertSame(failure, e.getCause());
+    }
+
+    // Eine Datei, deren Zählung fehlschlägt, wird gemeldet und trägt nichts zu den Zählern bei.
+    @Test
+    void failedFileIsReportedAndNotCounted() throws Exception {
+        writeFiles(20);
+        CorpusIngestion.Result expected = new CorpusIngestion(2, 2, 2, 4).ingest(directory);
+        Files.writeString(directory.resolve("kaputt.txt"), "ganz andere wörter hier");
+
+        CorpusIngestion.Result result = assertTimeoutPreemptively(TIMEOUT, () -> new CorpusIngestion(2, 2, 2, 4, file -> {
+            if (file.getFileName().toString().equals("kaputt.txt")) {
+                throw new IllegalStateException("simuliert");
+            }
+        }).ingest(directory));
+
+        assertEquals(1, result.failures().size());
+        assertEquals(directory.resolve("kaputt.txt"), result.failures().getFirst().file());
+        assertEquals(expected.fileCount(), result.fileCount());
+        assertEquals(expected.tokenCount(), result.tokenCount());
+        assertEquals(expected.cooccurrences().toMap(expected.vocabulary()),
+                result.cooccurrences().toMap(result.vocabulary()));
+        assertEquals(expected.nGrams().toMap(expected.vocabulary()), result.nGrams().toMap(result.vocabulary()));
+    }
+
+    private void writeFiles(int count) throws IOException {
+        List<String> words = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 200; j++) {
+                text.append(words.get((i * 31 + j * 7 + j * j) % words.size())).append(' ');
+            }
+            Files.writeString(directory.resolve("f" + i + ".txt"), text);
+        }
+    }
+}
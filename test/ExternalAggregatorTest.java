@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalAggregatorTest {
+    @TempDir
+    Path directory;
+
+    // Kleiner Puffer: weit mehr als 64 Läufe, also mehrere Zwischendurchgänge beim Mischen.
+    // Ein Schlüssel, der in jedem Lauf vorkommt, muss über alle Durchgänge korrekt addiert werden.
+    @Test
+    void manyRunsAreMergedInSeveralPasses() throws IOException {
+        Random random = new Random(5);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        try (ExternalAggregator aggregator = new ExternalAggregator(8, directory)) {
+            for (int i = 0; i < 50_000; i++) {
+                long key = i % 3 == 0 ? 42L : random.nextInt(2_000);
+                long count = 1 + random.nextInt(5);
+                aggregator.add(key, count);
+                expected.merge(key, count, Long::sum);
+            }
+
+            assertEquals(expected, collect(aggregator));
+            assertTrue(aggregator.runCount() > 64 * 64, "runCount=" + aggregator.runCount());
+        }
+        assertDirectoryEmpty();
+    }
+
+    // Extreme Schlüssel (Vorzeichen, gepackte Paare mit großen IDs) und große Anzahlen
+    // überstehen die Delta- und Varint-Kodierung der Läufe.
+    @Test
+    void extremeKeysAndCountsRoundTrip() throws IOException {
+        long[] keys = {
+                Long.MIN_VALUE, Long.MIN_VALUE + 1, -1L, 0L, 1L, 127L, 128L,
+                pair(Integer.MAX_VALUE, Integer.MAX_VALUE), pair(Integer.MAX_VALUE, 0), pair(1 << 30, (1 << 30) + 1),
+                Long.MAX_VALUE - 1, Long.MAX_VALUE,
+        };
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        try (ExternalAggregator aggregator = new ExternalAggregator(2, directory)) {
+            for (int round = 0; round < 3; round++) {
+                for (int i = keys.length - 1; i >= 0; i--) {
+                    long count = round == 0 ? Long.MAX_VALUE / 4 : i + 1;
+                    aggregator.add(keys[i], count);
+                    expected.merge(keys[i], count, Long::sum);
+                }
+            }
+
+            assertEquals(expected, collect(aggregator));
+            assertTrue(aggregator.runCount() > 1);
+        }
+    }
+
+    @Test
+    void fitsInMemoryWithoutRuns() throws IOException {
+        try (ExternalAggregator aggregator = new ExternalAggregator(1_000, directory)) {
+            aggregator.add(3L, 1L);
+            aggregator.add(-3L, 2L);
+            aggregator.add(3L, 4L);
+
+            assertEquals(Map.of(-3L, 2L, 3L, 5L), collect(aggregator));
+            assertEquals(0, aggregator.runCount());
+            // Danach ist der Aggregator leer und wiederverwendbar.
+            aggregator.add(1L, 1L);
+            assertEquals(Map.of(1L, 1L), collect(aggregator));
+        }
+    }
+
+    // Ein Fehler des Consumers mitten im Mischen hinterlässt nach close() keine Dateien.
+    @Test
+    void consumerFailureLeavesNoFilesAfterClose() throws IOException {
+        try (ExternalAggregator aggregator = new ExternalAggregator(4, directory)) {
+            for (long key = 0; key < 1_000; key++) {
+                aggregator.add(key % 300, 1L);
+            }
+            int[] seen = {0};
+            assertThrows(UncheckedIOException.class, () -> aggregator.forEachSorted((_, _) -> {
+                if (++seen[0] == 10) {
+                    throw new UncheckedIOException(new IOException("simuliert"));
+                }
+            }));
+        }
+        assertDirectoryEmpty();
+    }
+
+    private static Map<Long, Long> collect(ExternalAggregator aggregator) throws IOException {
+        List<Long> order = new ArrayList<>();
+        TreeMap<Long, Long> result = new TreeMap<>();
+        aggregator.forEachSorted((key, count) -> {
+            order.add(key);
+            result.put(key, count);
+        });
+        // Jeder Schlüssel genau einmal, aufsteigend sortiert.
+        assertEquals(new ArrayList<>(result.keySet()), order);
+        return result;
+    }
+
+    private void assertDirectoryEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    private static long pair(int center, int neighbor) {
+        return ((long) center << 32) | (neighbor & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,147 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntLongHashMapTest {
+    // Zufällige Folge aus addTo, put, remove und get über wenige Schlüssel (viele Kollisionen,
+    // häufiges Entfernen und Wiedereinfügen) im Vergleich mit einer HashMap.
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        IntLongHashMap map = new IntLongHashMap();
+        Map<Integer, Long> oracle = new HashMap<>();
+
+        for (int step = 0; step < 200_000; step++) {
+            int key = random.nextInt(step < 100_000 ? 64 : 5_000);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(oracle.merge(key, 3L, Long::sum), map.addTo(key, 3L));
+                case 1 -> {
+                    map.put(key, step);
+                    oracle.put(key, (long) step);
+                }
+                case 2 -> assertEquals(nullToZero(oracle.remove(key)), map.remove(key));
+                default -> assertEquals(nullToZero(oracle.get(key)), map.get(key));
+            }
+            assertEquals(oracle.size(), map.size());
+        }
+        assertEquals(oracle, toMap(map));
+    }
+
+    @Test
+    void removeThenReinsert() {
+        IntLongHashMap map = new IntLongHashMap();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        for (int key = 0; key < 100; key += 2) {
+            assertEquals(key, map.remove(key));
+            assertFalse(map.containsKey(key));
+        }
+        assertEquals(0L, map.remove(0));
+        for (int key = 0; key < 100; key += 4) {
+            assertEquals(7L, map.addTo(key, 7L));
+        }
+
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int key = 0; key < 100; key++) {
+            if (key % 2 == 1) {
+                expected.put(key, (long) key);
+            } else if (key % 4 == 0) {
+                expected.put(key, 7L);
+            }
+        }
+        assertEquals(expected, toMap(map));
+    }
+
+    // Eine Sondierungskette, die am Tabellenende beginnt und vorne weiterläuft, muss beim
+    // Entfernen per Rückwärtsverschiebung über die Grenze hinweg aufrücken.
+    @Test
+    void probeChainWrapsAround() throws Exception {
+        // 16 Plätze, Vergrößerung erst nach 12 Einträgen.
+        IntLongHashMap map = new IntLongHashMap(8);
+        List<Integer> last = keysWithHome(15, 16, 4);
+        List<Integer> first = keysWithHome(0, 16, 2);
+        Map<Integer, Long> oracle = new HashMap<>();
+        for (int key : last) {
+            map.put(key, key);
+            oracle.put(key, (long) key);
+        }
+        for (int key : first) {
+            map.put(key, key);
+            oracle.put(key, (long) key);
+        }
+
+        // Entfernt nacheinander Einträge am Anfang, in der Mitte und am Ende der Kette.
+        for (int key : List.of(last.get(0), first.get(0), last.get(2), last.get(3))) {
+            assertEquals(oracle.remove(key), map.remove(key));
+            assertEquals(oracle, toMap(map));
+            for (Map.Entry<Integer, Long> entry : oracle.entrySet()) {
+                assertTrue(map.containsKey(entry.getKey()));
+                assertEquals(entry.getValue(), map.get(entry.getKey()));
+            }
+        }
+        map.put(last.get(0), -1L);
+        oracle.put(last.get(0), -1L);
+        assertEquals(oracle, toMap(map));
+    }
+
+    @Test
+    void growsFromDefaultCapacity() {
+        IntLongHashMap map = new IntLongHashMap();
+        for (int key = 0; key < 100_000; key++) {
+            map.addTo(key * 31, key);
+        }
+        assertEquals(100_000, map.size());
+        for (int key = 0; key < 100_000; key++) {
+            assertEquals(key, map.get(key * 31));
+        }
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void addAllSumsCounts() {
+        IntLongHashMap left = new IntLongHashMap();
+        IntLongHashMap right = new IntLongHashMap();
+        for (int key = 0; key < 1_000; key++) {
+            left.addTo(key, 1L);
+            right.addTo(key + 500, 2L);
+        }
+        left.addAll(right);
+        assertEquals(1_500, left.size());
+        assertEquals(1L, left.get(0));
+        assertEquals(3L, left.get(700));
+        assertEquals(2L, left.get(1_499));
+    }
+
+    // Sucht count Schlüssel, deren Heimatplatz in einer Tabelle der Größe capacity home ist.
+    static List<Integer> keysWithHome(int home, int capacity, int count) throws Exception {
+        Method mix = IntLongHashMap.class.getDeclaredMethod("mix", int.class);
+        mix.setAccessible(true);
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; keys.size() < count; key++) {
+            if (((int) mix.invoke(null, key) & (capacity - 1)) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static Map<Integer, Long> toMap(IntLongHashMap map) {
+        Map<Integer, Long> result = new HashMap<>();
+        map.forEach(result::put);
+        return result;
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
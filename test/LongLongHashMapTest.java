@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTest {
+    // Wie IntLongHashMapTest, zusätzlich mit dem Schlüssel 0 (freie Plätze) und negativen Schlüsseln.
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(7);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> oracle = new HashMap<>();
+
+        for (int step = 0; step < 200_000; step++) {
+            long key = (random.nextInt(step < 100_000 ? 64 : 5_000) - 32) * 0x1_0000_0001L;
+            switch (random.nextInt(5)) {
+                case 0 -> assertEquals(oracle.merge(key, 3L, Long::sum), map.addTo(key, 3L));
+                case 1 -> {
+                    map.put(key, step);
+                    oracle.put(key, (long) step);
+                }
+                case 2 -> assertEquals(oracle.getOrDefault(key, -9L), map.getOrDefault(key, -9L));
+                case 3 -> assertEquals(oracle.containsKey(key), map.containsKey(key));
+                default -> assertEquals(nullToZero(oracle.remove(key)), map.remove(key));
+            }
+            assertEquals(oracle.size(), map.size());
+        }
+        assertEquals(oracle, toMap(map));
+    }
+
+    @Test
+    void removeThenReinsertIncludingZeroKey() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = -50; key < 50; key++) {
+            map.put(key, key * 10);
+        }
+        for (long key = -50; key < 50; key += 2) {
+            assertEquals(key * 10, map.remove(key));
+            assertFalse(map.containsKey(key));
+        }
+        assertEquals(50, map.size());
+        assertEquals(5L, map.addTo(0L, 5L));
+        assertEquals(5L, map.addTo(-50L, 5L));
+
+        Map<Long, Long> expected = new HashMap<>();
+        for (long key = -49; key < 50; key += 2) {
+            expected.put(key, key * 10);
+        }
+        expected.put(0L, 5L);
+        expected.put(-50L, 5L);
+        assertEquals(expected, toMap(map));
+    }
+
+    // Sondierungskette über das Tabellenende hinweg, siehe IntLongHashMapTest.probeChainWrapsAround.
+    @Test
+    void probeChainWrapsAround() throws Exception {
+        LongLongHashMap map = new LongLongHashMap(8);
+        List<Long> last = keysWithHome(15, 16, 4);
+        List<Long> first = keysWithHome(0, 16, 2);
+        Map<Long, Long> oracle = new HashMap<>();
+        for (long key : last) {
+            map.put(key, key);
+            oracle.put(key, key);
+        }
+        for (long key : first) {
+            map.put(key, key);
+            oracle.put(key, key);
+        }
+
+        for (long key : List.of(last.get(0), first.get(0), last.get(2), last.get(3))) {
+            assertEquals(oracle.remove(key), map.remove(key));
+            assertEquals(oracle, toMap(map));
+            for (Map.Entry<Long, Long> entry : oracle.entrySet()) {
+                assertTrue(map.containsKey(entry.getKey()));
+                assertEquals(entry.getValue(), map.get(entry.getKey()));
+            }
+        }
+        map.put(last.get(0), -1L);
+        oracle.put(last.get(0), -1L);
+        assertEquals(oracle, toMap(map));
+    }
+
+    @Test
+    void growsFromDefaultCapacityAndClears() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 0; key < 100_000; key++) {
+            map.addTo(key << 32, key);
+        }
+        assertEquals(100_000, map.size());
+        for (long key = 0; key < 100_000; key++) {
+            assertEquals(key, map.get(key << 32));
+        }
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0L));
+        assertEquals(1L, map.addTo(1L << 32, 1L));
+        assertEquals(1, map.size());
+    }
+
+    private static List<Long> keysWithHome(int home, int capacity, int count) throws Exception {
+        Method mix = LongLongHashMap.class.getDeclaredMethod("mix", long.class);
+        mix.setAccessible(true);
+        List<Long> keys = new ArrayList<>();
+        // Ab 1, weil 0 nicht in der Tabelle, sondern in eigenen Feldern liegt.
+        for (long key = 1; keys.size() < count; key++) {
+            if (((int) mix.invoke(null, key) & (capacity - 1)) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static Map<Long, Long> toMap(LongLongHashMap map) {
+        Map<Long, Long> result = new HashMap<>();
+        map.forEach(result::put);
+        return result;
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
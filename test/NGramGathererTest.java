@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Gatherer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NGramGathererTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+
+    @Test
+    void matchesImplementationWithoutGatherer() {
+        List<String> tokens = randomTokens(new Random(31), 200);
+        for (int n = 1; n <= 6; n++) {
+            assertEquals(Main.produceNGramsWithoutGatherer(n, tokens), tokens.stream()
+                    .gather(new NGramGatherer(n))
+                    .toList(), "n=" + n);
+        }
+    }
+
+    // ofIds gibt bei jedem Schritt denselben Puffer aus; kopiert ergibt er die n-Gramme des Arrays.
+    @Test
+    void idVariantReusesOneBuffer() {
+        int[] ids = new Vocabulary().encode(randomTokens(new Random(32), 200));
+        for (int n = 1; n <= 6; n++) {
+            List<int[]> expected = Main.produceNGramsWithoutGatherer(n, ids);
+
+            List<int[]> emitted = Arrays.stream(ids).boxed().gather(NGramGatherer.ofIds(n)).toList();
+            assertEquals(expected.size(), emitted.size());
+            for (int[] nGram : emitted) {
+                assertSame(emitted.getFirst(), nGram);
+            }
+
+            assertNGramsEqual(expected, copies(NGramGatherer.ofIds(n), ids));
+            assertNGramsEqual(expected, Main.produceNGramsWithGatherer(n, ids));
+
+            List<int[]> fromArray = new ArrayList<>();
+            NGramGatherer.forEachNGram(n, ids, nGram -> fromArray.add(nGram.clone()));
+            assertNGramsEqual(expected, fromArray);
+        }
+    }
+
+    @Test
+    void fingerprintsMatchArrayVariant() {
+        int[] ids = new Vocabulary().encode(randomTokens(new Random(33), 200));
+        for (int n = 1; n <= 6; n++) {
+            List<Long> expected = Arrays.stream(NGramFingerprints.of(n, ids)).boxed().toList();
+            assertEquals(expected, Arrays.stream(ids).boxed().gather(NGramGatherer.fingerprintsOfIds(n)).toList());
+        }
+    }
+
+    @Test
+    void shortInputYieldsNothing() {
+        assertEquals(List.of(), List.of("see", "meer").stream().gather(new NGramGatherer(3)).toList());
+        assertEquals(0, Arrays.stream(new int[]{1, 2}).boxed().gather(NGramGatherer.ofIds(3)).count());
+        assertThrows(IllegalArgumentException.class, () -> NGramGatherer.ofIds(0));
+    }
+
+    // Führt den Gatherer Element für Element aus und kopiert jedes ausgegebene n-Gramm sofort,
+    // solange der Puffer noch gültig ist.
+    private static <A> List<int[]> copies(Gatherer<Integer, A, int[]> gatherer, int[] ids) {
+        List<int[]> result = new ArrayList<>();
+        A state = gatherer.initializer().get();
+        for (int id : ids) {
+            gatherer.integrator().integrate(state, id, nGram -> result.add(nGram.clone()));
+        }
+        return result;
+    }
+
+    private static void assertNGramsEqual(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "Position " + i);
+        }
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
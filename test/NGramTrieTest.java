@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NGramTrieTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+
+    // Ein Durchlauf über alle Ordnungen ergibt dieselben Häufigkeiten wie countNGrams pro n,
+    // auch für Eingaben kürzer als maxOrder.
+    @Test
+    void multiOrderMatchesCountNGramsPerOrder() {
+        Random random = new Random(51);
+        for (int length : new int[]{0, 1, 2, 4, 5, 6, 300}) {
+            List<String> tokens = randomTokens(random, length);
+            Map<Integer, Map<String, Long>> counts = Main.countNGramsMultiOrder(1, 5, tokens);
+            assertEquals(5, counts.size());
+            for (int n = 1; n <= 5; n++) {
+                assertEquals(Main.countNGrams(n, tokens), counts.get(n), "n=" + n + ", length=" + length);
+            }
+        }
+    }
+
+    // Genug Tokens für mehrere parallele Abschnitte: n-Gramme über Abschnittsgrenzen werden
+    // genau einmal gezählt.
+    @Test
+    void parallelChunksCountNGramsAcrossBorders() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(52), 100_000));
+        NGramTrie trie = Main.countNGramsMultiOrder(1, 5, ids);
+        for (int n = 1; n <= 5; n++) {
+            assertEquals(Main.countNGrams(n, ids).toMap(vocabulary), trie.toMap(n, vocabulary), "n=" + n);
+            assertEquals(ids.length - n + 1, trie.totalCount(n));
+        }
+    }
+
+    // Wie countNGramsMultiOrder, aber mit festen, sehr kleinen Abschnitten (auch kürzer als maxOrder).
+    @Test
+    void addStartingInJoinsChunksOfAnySize() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(53), 200));
+        for (int chunkSize : new int[]{1, 2, 4, 5, 6, 13, 200}) {
+            NGramTrie merged = new NGramTrie(2, 4);
+            for (int from = 0; from < ids.length; from += chunkSize) {
+                NGramTrie chunk = new NGramTrie(2, 4);
+                chunk.addStartingIn(ids, from, Math.min(ids.length, from + chunkSize));
+                merged.addAll(chunk);
+            }
+            for (int n = 2; n <= 4; n++) {
+                assertEquals(Main.countNGrams(n, ids).toMap(vocabulary), merged.toMap(n, vocabulary),
+                        "n=" + n + ", chunkSize=" + chunkSize);
+            }
+            assertThrows(IllegalArgumentException.class, () -> merged.toMap(5, vocabulary));
+        }
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapCooccurrenceTableTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+
+    @TempDir
+    Path directory;
+
+    // Viele Threads erhöhen gleichzeitig dasselbe Paar: genau ein Platz, kein Zähler geht verloren.
+    @Test
+    void concurrentAddOnOneKeyLosesNoCounts() throws Exception {
+        int threads = 8;
+        int addsPerThread = 100_000;
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.allocate(16);
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    assertTrue(start.await(10, TimeUnit.SECONDS));
+                    for (int i = 0; i < addsPerThread; i++) {
+                        table.add(7, 3, 1L);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+            assertEquals((long) threads * addsPerThread, table.get(7, 3));
+            assertEquals(1, table.size());
+        }
+    }
+
+    @Test
+    void parallelCountingMatchesMatrix() throws IOException {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(21), 20_000));
+        for (int window = 1; window <= 4; window++) {
+            CooccurrenceMatrix expected = Main.performCooccurrenceAnalysisWithoutGatherer(window, ids);
+            try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.allocate(OffHeapCooccurrenceTable.maxPairs(ids, window))) {
+                Main.performCooccurrenceAnalysisOffHeap(window, ids, table);
+                assertEquals(expected.toMap(vocabulary), table.toMatrix().toMap(vocabulary), "window=" + window);
+                assertEquals(expected.pairCount(), table.size());
+            }
+        }
+    }
+
+    // Eine Datei-Tabelle behält nach dem Schließen Größe und Zähler und zählt beim erneuten Öffnen weiter.
+    @Test
+    void reopenedFileTableKeepsCounts() throws IOException {
+        Path file = directory.resolve("paare.bin");
+        Vocabulary vocabulary = new Vocabulary();
+        int[] first = vocabulary.encode(randomTokens(new Random(22), 2_000));
+        int[] second = vocabulary.encode(randomTokens(new Random(23), 2_000));
+
+        long capacity;
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(file, 1_000)) {
+            table.addWindowCounts(first, 2);
+            capacity = table.capacity();
+        }
+
+        CooccurrenceMatrix expected = new CooccurrenceMatrix();
+        expected.addWindowCounts(first, 2);
+        // expectedPairs gilt nur für neue Dateien.
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(file, 1)) {
+            assertEquals(capacity, table.capacity());
+            assertEquals(expected.pairCount(), table.size());
+            assertEquals(expected.toMap(vocabulary), table.toMatrix().toMap(vocabulary));
+            table.addWindowCounts(second, 2);
+        }
+
+        expected.addWindowCounts(second, 2);
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(file, 1)) {
+            assertEquals(expected.toMap(vocabulary), table.toMatrix().toMap(vocabulary));
+        }
+    }
+
+    @Test
+    void openRejectsForeignFiles() throws IOException {
+        Path file = directory.resolve("fremd.bin");
+        Files.writeString(file, "keine Tabelle, aber länger als der Kopf der Datei mit seinen 64 Bytes ....");
+        assertThrows(IOException.class, () -> OffHeapCooccurrenceTable.open(file, 10));
+
+        Path truncated = directory.resolve("gekuerzt.bin");
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(truncated, 10)) {
+            table.add(1, 2, 3L);
+        }
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 16));
+        assertThrows(IOException.class, () -> OffHeapCooccurrenceTable.open(truncated, 10));
+    }
+
+    // Ein Dokument, das nicht sicher hineinpasst, wird abgelehnt, bevor ein Paar gezählt wird;
+    // eine Datei-Tabelle bleibt so nicht halb gezählt zurück.
+    @Test
+    void tooSmallTableFailsBeforeCounting() throws IOException {
+        Path file = directory.resolve("klein.bin");
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(24), 1_000));
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(file, 0)) {
+            table.add(0, 1, 5L);
+            assertTrue(OffHeapCooccurrenceTable.maxPairs(ids, 3) > table.pairLimit());
+
+            assertThrows(IllegalStateException.class, () -> Main.performCooccurrenceAnalysisOffHeap(3, ids, table));
+            assertThrows(IllegalStateException.class, () -> table.addWindowCounts(ids, 3));
+            assertEquals(1, table.size());
+        }
+        try (OffHeapCooccurrenceTable table = OffHeapCooccurrenceTable.open(file, 0)) {
+            assertEquals(Map.of(0, Map.of(1, 5L)), toMap(table));
+        }
+    }
+
+    @Test
+    void maxPairsBoundsDistinctPairs() {
+        assertEquals(0, OffHeapCooccurrenceTable.maxPairs(new int[]{4}, 2));
+        // 3 verschiedene IDs: höchstens 9 Paare, obwohl es 2 * 2 * 100 - 6 Paarvorkommen gibt.
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 3;
+        }
+        assertEquals(9, OffHeapCooccurrenceTable.maxPairs(ids, 2));
+        assertEquals(6, OffHeapCooccurrenceTable.maxPairs(new int[]{1, 2, 3, 4}, 1));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapCooccurrenceTable.maxPairs(new int[]{1, -1}, 1));
+    }
+
+    private static Map<Integer, Map<Integer, Long>> toMap(OffHeapCooccurrenceTable table) {
+        Map<Integer, Map<Integer, Long>> map = new HashMap<>();
+        table.forEach((center, neighbor, count) -> map.computeIfAbsent(center, _ -> new HashMap<>()).put(neighbor, count));
+        return map;
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
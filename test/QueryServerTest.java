@@ -0,0 +1,157 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryServerTest {
+    private static final Gson GSON = new Gson();
+    private static final List<String> TOKENS = Main.produceTokensFromText(
+            "Die See ist ruhig. Die See ist tief, und das Meer ist weit. Am Meer liegt die See.");
+
+    @TempDir
+    Path directory;
+
+    private CooccurrenceIndex index;
+    private QueryServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        Vocabulary vocabulary = new Vocabulary();
+        CooccurrenceMatrix matrix = Main.performCooccurrenceAnalysisWithoutGatherer(2, vocabulary.encode(TOKENS));
+        Path indexPath = directory.resolve("index.bin");
+        CooccurrenceIndex.write(indexPath, matrix, vocabulary);
+        index = CooccurrenceIndex.open(indexPath);
+
+        Map<String, Long> nGramCounts = new HashMap<>(Main.countNGrams(2, TOKENS));
+        // Ein Schlüssel, dessen Abfrage mit einem unerwarteten Fehler endet.
+        Map<String, Long> failing = new HashMap<>(nGramCounts) {
+            @Override
+            public Long getOrDefault(Object key, Long defaultValue) {
+                if ("fehler fall".equals(key)) {
+                    throw new IllegalStateException("simuliert");
+                }
+                return super.getOrDefault(key, defaultValue);
+            }
+        };
+        server = QueryServer.start(0, index, failing, 100);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+        index.close();
+    }
+
+    @Test
+    void topKReturnsMostFrequentNeighbors() throws Exception {
+        Map<String, Map<String, Long>> expected = Main.performCooccurrenceAnalysisWithoutGatherer(2, TOKENS);
+        HttpResponse<String> response = get("/topk?word=see&k=2");
+        assertEquals(200, response.statusCode());
+        JsonObject json = GSON.fromJson(response.body(), JsonObject.class);
+        assertEquals("see", json.get("word").getAsString());
+        // Bei gleichen Anzahlen kann die Auswahl abweichen; verglichen werden daher die Anzahlen.
+        assertEquals(List.copyOf(Main.findTopKCooccurrences("see", 2, expected).values()),
+                List.copyOf(neighbors(json).values()));
+        assertEquals(expected.get("see"), neighbors(GSON.fromJson(get("/topk?word=see&k=1000").body(), JsonObject.class)));
+
+        assertEquals(404, get("/topk?word=unbekannt").statusCode());
+        assertEquals(400, get("/topk?word=see&k=abc").statusCode());
+        assertEquals(400, get("/topk?word=see&k=-1").statusCode());
+        assertEquals(400, get("/topk").statusCode());
+    }
+
+    @Test
+    void rowReturnsAllNeighbors() throws Exception {
+        Map<String, Map<String, Long>> expected = Main.performCooccurrenceAnalysisWithoutGatherer(2, TOKENS);
+        HttpResponse<String> response = get("/row?word=Meer");
+        assertEquals(200, response.statusCode());
+        assertEquals(expected.get("meer"), neighbors(GSON.fromJson(response.body(), JsonObject.class)));
+        assertEquals(404, get("/row?word=unbekannt").statusCode());
+    }
+
+    @Test
+    void nGramCountsAreNormalized() throws Exception {
+        long expected = Main.countNGrams(2, TOKENS).get("die see");
+        JsonObject json = GSON.fromJson(get("/ngram?q=%20Die++See%20").body(), JsonObject.class);
+        assertEquals("die see", json.get("ngram").getAsString());
+        assertEquals(expected, json.get("count").getAsLong());
+        assertEquals(0, GSON.fromJson(get("/ngram?q=gibt+es+nicht").body(), JsonObject.class).get("count").getAsLong());
+    }
+
+    // Gleiche Anfragen in anderer Schreibweise und Reihenfolge teilen sich einen Cache-Eintrag.
+    @Test
+    void equivalentQueriesShareOneCacheEntry() throws Exception {
+        HttpResponse<String> first = get("/topk?word=See&k=3");
+        HttpResponse<String> second = get("/topk?k=3&word=see");
+        assertEquals(first.body(), second.body());
+        get("/topk?word=see");
+        get("/topk?word=SEE&k=10");
+
+        QueryServer.Metrics metrics = server.metrics();
+        assertEquals(2, metrics.endpoints().get("/topk").cacheHits());
+        assertEquals(2, metrics.cacheEntries());
+    }
+
+    @Test
+    void unexpectedFailureAnswers500AndCountsError() throws Exception {
+        HttpResponse<String> response = get("/ngram?q=fehler+fall");
+        assertEquals(500, response.statusCode());
+        assertEquals("Interner Fehler.", GSON.fromJson(response.body(), JsonObject.class).get("error").getAsString());
+        // Fehler werden nicht zwischengespeichert.
+        assertEquals(500, get("/ngram?q=fehler+fall").statusCode());
+
+        QueryServer.EndpointReport report = server.metrics().endpoints().get("/ngram");
+        assertEquals(2, report.errors());
+        assertEquals(0, report.cacheHits());
+    }
+
+    @Test
+    void metricsReportRequestsPerEndpoint() throws Exception {
+        get("/row?word=see");
+        get("/row?word=see");
+        get("/row?word=unbekannt");
+
+        HttpResponse<String> response = get("/metrics");
+        assertEquals(200, response.statusCode());
+        JsonObject row = GSON.fromJson(response.body(), JsonObject.class)
+                .getAsJsonObject("endpoints").getAsJsonObject("/row");
+        assertEquals(3, row.get("requests").getAsLong());
+        assertEquals(1, row.get("cacheHits").getAsLong());
+        assertEquals(1, row.get("errors").getAsLong());
+
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri("/metrics"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://127.0.0.1:" + server.port() + pathAndQuery);
+    }
+
+    private static Map<String, Long> neighbors(JsonObject json) {
+        Map<String, Long> neighbors = new LinkedHashMap<>();
+        json.getAsJsonObject("neighbors").entrySet()
+                .forEach(entry -> neighbors.put(entry.getKey(), entry.getValue().getAsLong()));
+        return neighbors;
+    }
+}
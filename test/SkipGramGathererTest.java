@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Gatherer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkipGramGathererTest {
+    private static final List<String> WORDS = List.of("see", "meer", "nemo", "wasser", "kapitän", "nautilus", "insel");
+
+    // Ohne Optionen entstehen genau die Paare, die CooccurrenceAnalysisGatherer.ofIds(window) zählt.
+    @Test
+    void pairsMatchCooccurrenceCounts() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(41), 1_000));
+        for (int window = 1; window <= 5; window++) {
+            CooccurrenceMatrix expected = Arrays.stream(ids)
+                    .boxed()
+                    .gather(CooccurrenceAnalysisGatherer.ofIds(window))
+                    .findFirst()
+                    .orElseThrow();
+
+            CooccurrenceMatrix pairs = new CooccurrenceMatrix();
+            new SkipGramGatherer(window, 64).forEachBatch(ids, batch -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    pairs.add(batch.centers()[i], batch.contexts()[i], 1L);
+                }
+            });
+            assertEquals(expected.toMap(vocabulary), pairs.toMap(vocabulary), "window=" + window);
+        }
+    }
+
+    // Alle Stapel außer dem letzten sind genau batchSize groß; der letzte, nicht volle Stapel
+    // wird vom Finisher ausgegeben, ein leerer Stapel nie.
+    @Test
+    void batchesAreCutAtBatchSizeAndLastPartialBatchIsFlushed() {
+        int[] ids = new Vocabulary().encode(randomTokens(new Random(42), 101));
+        int window = 2;
+        // 101 Tokens, Fenster 2: 2 * (2 * 101 - 3) = 398 Paare.
+        int pairCount = 398;
+        for (int batchSize : new int[]{1, 2, 7, 199, 398, 400}) {
+            List<Integer> sizes = new ArrayList<>();
+            List<Integer> capacities = new ArrayList<>();
+            new SkipGramGatherer(window, batchSize).forEachBatch(ids, batch -> {
+                sizes.add(batch.size());
+                capacities.add(batch.capacity());
+            });
+
+            int fullBatches = pairCount / batchSize;
+            int rest = pairCount % batchSize;
+            assertEquals(fullBatches + (rest > 0 ? 1 : 0), sizes.size(), "batchSize=" + batchSize);
+            for (int i = 0; i < fullBatches; i++) {
+                assertEquals(batchSize, sizes.get(i), "batchSize=" + batchSize + ", Stapel " + i);
+            }
+            if (rest > 0) {
+                assertEquals(rest, sizes.getLast(), "batchSize=" + batchSize);
+            }
+            assertTrue(capacities.stream().allMatch(capacity -> capacity == batchSize));
+        }
+    }
+
+    // Ein Downstream, der keine Stapel mehr annimmt, beendet die Ausgabe; der Finisher gibt nichts mehr aus.
+    @Test
+    void rejectingDownstreamStopsOutput() {
+        int[] ids = new Vocabulary().encode(randomTokens(new Random(43), 100));
+        SkipGramGatherer gatherer = new SkipGramGatherer(3, 10);
+        SkipGramGatherer.State state = gatherer.initializer().get();
+        int[] pushed = {0};
+        boolean[] rejecting = {false};
+        Gatherer.Downstream<SkipGramBatch> downstream = new Gatherer.Downstream<>() {
+            @Override
+            public boolean push(SkipGramBatch batch) {
+                pushed[0]++;
+                rejecting[0] = pushed[0] == 2;
+                return !rejecting[0];
+            }
+
+            @Override
+            public boolean isRejecting() {
+                return rejecting[0];
+            }
+        };
+
+        int accepted = 0;
+        for (int id : ids) {
+            accepted++;
+            if (!gatherer.integrator().integrate(state, id, downstream)) {
+                break;
+            }
+        }
+        gatherer.finisher().accept(state, downstream);
+        assertEquals(2, pushed[0]);
+        assertTrue(accepted < ids.length);
+    }
+
+    // Dynamisches Fenster und Subsampling liefern mit festem seed dieselben Paare.
+    // Das dynamische Fenster allein erzeugt nur Paare, die auch das volle Fenster erzeugt.
+    @Test
+    void optionsAreDeterministic() {
+        Vocabulary vocabulary = new Vocabulary();
+        int[] ids = vocabulary.encode(randomTokens(new Random(44), 2_000));
+        long[] frequencies = SkipGramGatherer.frequencies(ids);
+
+        Map<String, Map<String, Long>> subsampled = collect(new SkipGramGatherer(4, 32, true, 0.05, frequencies, 7L), ids, vocabulary);
+        assertEquals(subsampled, collect(new SkipGramGatherer(4, 32, true, 0.05, frequencies, 7L), ids, vocabulary));
+
+        Map<String, Map<String, Long>> all = collect(new SkipGramGatherer(4, 32), ids, vocabulary);
+        Map<String, Map<String, Long>> dynamic = collect(new SkipGramGatherer(4, 32, true, 0, null, 7L), ids, vocabulary);
+        dynamic.forEach((center, neighbors) -> neighbors.forEach((neighbor, count) ->
+                assertTrue(all.get(center).get(neighbor) >= count, center + " " + neighbor)));
+    }
+
+    @Test
+    void negativeIdsAreRejected() {
+        int[] ids = {1, 2, -1, 3};
+        assertThrows(IllegalArgumentException.class, () -> new SkipGramGatherer(2, 8).forEachBatch(ids, _ -> { }));
+        // Mit Subsampling wurde eine negative ID bisher als Index benutzt.
+        long[] frequencies = {1, 1, 1, 1};
+        SkipGramGatherer subsampling = new SkipGramGatherer(2, 8, false, 0.1, frequencies, 1L);
+        assertThrows(IllegalArgumentException.class, () -> subsampling.forEachBatch(ids, _ -> { }));
+        assertThrows(IllegalArgumentException.class, () -> SkipGramGatherer.frequencies(ids));
+    }
+
+    private static Map<String, Map<String, Long>> collect(SkipGramGatherer gatherer, int[] ids, Vocabulary vocabulary) {
+        CooccurrenceMatrix pairs = new CooccurrenceMatrix();
+        gatherer.forEachBatch(ids, batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                pairs.add(batch.centers()[i], batch.contexts()[i], 1L);
+            }
+        });
+        return pairs.toMap(vocabulary);
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        return random.ints(count, 0, WORDS.size()).mapToObj(WORDS::get).toList();
+    }
+}
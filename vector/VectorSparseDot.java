@@ -0,0 +1,27 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD-Variante von SparseDot mit der Vector API (Inkubator-Modul, nur im Profil vector):
+// Die Werte des dichten Vektors werden per Gather über die Spalten-IDs geladen und mit den
+// Zeilenwerten multipliziert (FMA). WordVectors lädt die Klasse, wenn sie vorhanden ist und die
+// JVM mit --add-modules jdk.incubator.vector gestartet wurde; sonst bleibt es bei der skalaren Schleife.
+class VectorSparseDot implements SparseDot {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] values, int[] columns, int from, int to, float[] dense) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            FloatVector rowValues = FloatVector.fromArray(SPECIES, values, i);
+            FloatVector denseValues = FloatVector.fromArray(SPECIES, dense, 0, columns, i);
+            sum = rowValues.fma(denseValues, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result += values[i] * dense[columns[i]];
+        }
+        return result;
+    }
+}